@@ -4,6 +4,7 @@ import com.inventory.dto.ItemCreateRequest;
 import com.inventory.dto.ItemResponse;
 import com.inventory.entity.Item;
 import com.inventory.repository.ItemRepository;
+import com.inventory.service.AlertCounterService;
 import com.inventory.service.BarcodeService;
 import com.inventory.service.PurchaseOrderService;
 import com.inventory.service.QRCodeService;
@@ -54,6 +55,9 @@ public class ItemController {
     @Autowired
     private DepartmentRepository departmentRepository;
 
+    @Autowired
+    private AlertCounterService alertCounterService;
+
     @GetMapping
     public List<ItemResponse> getAllItems(
             Authentication authentication,
@@ -183,6 +187,7 @@ public class ItemController {
         for (Item item : itemsInDepartment) {
             item.setDepartment(null); // Make them public
             itemRepository.save(item);
+            alertCounterService.reassignItemDepartment(item.getId(), departmentName, null);
         }
         
         // Update all users with this department to no department (NULL)
@@ -522,6 +527,7 @@ public class ItemController {
         item.setLocation(request.getLocation());
         item.setEquipment(request.getEquipment());
         item.setCategory(request.getCategory() != null ? request.getCategory() : ABCCategory.C);
+        String previousDepartment = item.getDepartment();
         item.setDepartment(request.getDepartment()); // Update department field
         item.setWeeklyData(request.getWeeklyData());
         
@@ -531,15 +537,22 @@ public class ItemController {
         }
         
         Item savedItem = itemRepository.save(item);
+        if (!Objects.equals(previousDepartment, savedItem.getDepartment())) {
+            // Alert counts are grouped by the item's department (usage rollups follow via ItemChangedEvent)
+            alertCounterService.reassignItemDepartment(savedItem.getId(), previousDepartment, savedItem.getDepartment());
+        }
         return ResponseEntity.ok(convertToResponse(savedItem));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(@PathVariable Long id) {
-        if (!itemRepository.existsById(id)) {
+        Optional<Item> item = itemRepository.findById(id);
+        if (item.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
+        // The item's alerts are deleted with it
+        alertCounterService.removeItemAlerts(id, item.get().getDepartment());
         itemRepository.deleteById(id);
         return ResponseEntity.noContent().build();
     }
@@ -551,7 +564,9 @@ public class ItemController {
         List<Long> notFoundIds = new ArrayList<>();
         
         for (Long id : itemIds) {
-            if (itemRepository.existsById(id)) {
+            Optional<Item> item = itemRepository.findById(id);
+            if (item.isPresent()) {
+                alertCounterService.removeItemAlerts(id, item.get().getDepartment());
                 itemRepository.deleteById(id);
                 deletedIds.add(id);
             } else {
@@ -2,7 +2,9 @@ package com.inventory.controller;
 
 import com.inventory.dto.*;
 import com.inventory.entity.User;
+import com.inventory.service.QuickStatsCache;
 import com.inventory.service.StatsService;
+import com.inventory.service.TopUsageTracker;
 import com.inventory.service.UserService;
 import com.inventory.repository.ItemRepository;
 import com.inventory.util.JwtUtil;
@@ -13,7 +15,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 
 @RestController
@@ -25,6 +29,9 @@ public class StatsController {
     @Autowired
     private StatsService statsService;
     
+    @Autowired
+    private QuickStatsCache quickStatsCache;
+    
     @Autowired
     private UserService userService;
     
@@ -51,14 +58,24 @@ public class StatsController {
     @GetMapping("/daily-usage/filtered")
     public ResponseEntity<List<DailyUsageDto>> getDailyUsageFiltered(
             @RequestParam String startDate,
-            @RequestParam String endDate) {
+            @RequestParam String endDate,
+            @RequestParam(required = false) String timezone) {
         try {
-            logger.info("Getting daily usage filtered from {} to {}", startDate, endDate);
+            logger.info("Getting daily usage filtered from {} to {} (timezone {})", startDate, endDate, timezone);
             LocalDate start = LocalDate.parse(startDate);
             LocalDate end = LocalDate.parse(endDate);
-            List<DailyUsageDto> dailyUsage = statsService.getDailyUsageFiltered(start, end);
+            List<DailyUsageDto> dailyUsage;
+            if (timezone != null && !timezone.isBlank()) {
+                // IANA zone id, e.g. America/Los_Angeles
+                dailyUsage = statsService.getDailyUsageFiltered(start, end, ZoneId.of(timezone.trim()));
+            } else {
+                dailyUsage = statsService.getDailyUsageFiltered(start, end);
+            }
             logger.info("Successfully retrieved {} filtered daily usage records", dailyUsage.size());
             return ResponseEntity.ok(dailyUsage);
+        } catch (DateTimeException e) {
+            logger.warn("Invalid date or timezone for filtered daily usage: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error getting filtered daily usage", e);
             return ResponseEntity.internalServerError().build();
@@ -97,6 +114,42 @@ public class StatsController {
         }
     }
 
+    /**
+     * Top items for today (window=today) or the last 7 days (window=week), answered from memory.
+     * ADMIN/USER only see their own department; OWNER may pick one or see all.
+     */
+    @GetMapping("/top-usage/recent")
+    public ResponseEntity<List<TopUsageItemDto>> getRecentTopUsageItems(
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = "today") String window,
+            @RequestParam(required = false) String department,
+            HttpServletRequest request) {
+        try {
+            String username = getCurrentUsername(request);
+            if (username == null) {
+                return ResponseEntity.status(401).build();
+            }
+            
+            String filterDepartment = department;
+            if (!"ZOE_PHANTOM".equals(username)) {
+                User user = userService.findByUsername(username);
+                if (user == null) {
+                    return ResponseEntity.status(404).build();
+                }
+                if (user.getRole() != User.UserRole.OWNER) {
+                    filterDepartment = user.getDepartment();
+                }
+            }
+            
+            int days = "week".equalsIgnoreCase(window) ? TopUsageTracker.MAX_WINDOW_DAYS : 1;
+            List<TopUsageItemDto> topItems = statsService.getRecentTopUsageItems(Math.min(limit, 100), days, filterDepartment);
+            return ResponseEntity.ok(topItems);
+        } catch (Exception e) {
+            logger.error("Error getting recent top usage items", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/low-stock")
     public ResponseEntity<List<LowStockItemDto>> getLowStockItems() {
         try {
@@ -165,7 +218,7 @@ public class StatsController {
                     user.getRole(), filterDepartment);
             }
             
-            QuickStatsDto quickStats = statsService.getQuickStatsByDepartment(filterDepartment);
+            QuickStatsDto quickStats = quickStatsCache.getQuickStats(filterDepartment);
             
             logger.info("Successfully retrieved quick stats");
             return ResponseEntity.ok(quickStats);
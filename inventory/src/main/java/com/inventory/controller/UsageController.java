@@ -1,25 +1,29 @@
 package com.inventory.controller;
 
+import com.inventory.dto.UsageCursorPage;
 import com.inventory.dto.UsageRequest;
 import com.inventory.dto.UsageResponse;
 import com.inventory.entity.Usage;
 import com.inventory.entity.User;
+import com.inventory.service.BulkExportService;
 import com.inventory.service.UsageService;
 import com.inventory.service.UserService;
-import com.inventory.service.ExcelExportService;
 import com.inventory.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -42,7 +46,7 @@ public class UsageController {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private ExcelExportService excelExportService;
+    private BulkExportService bulkExportService;
 
     /**
      * Extract username from JWT token in request
@@ -140,6 +144,7 @@ public class UsageController {
     public ResponseEntity<Page<UsageResponse>> getAllUsagePaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String department,
             HttpServletRequest request) {
         try {
             // Get current user from JWT token
@@ -155,15 +160,11 @@ public class UsageController {
                 return ResponseEntity.status(404).build();
             }
             
-            // For paginated results, we'll need to implement department filtering in the service layer
-            // For now, return 401 for non-OWNER users as this endpoint doesn't support department filtering yet
-            if (user.getRole() != User.UserRole.OWNER) {
-                logger.warn("Paginated usage access denied for non-OWNER user: {}", username);
-                return ResponseEntity.status(403).build();
-            }
+            // Department filtering is applied in SQL for every role
+            String departmentFilter = getDepartmentFilter(user, department);
             
             Pageable pageable = PageRequest.of(page, size);
-            Page<UsageResponse> response = usageService.getAllUsagePaginated(pageable)
+            Page<UsageResponse> response = usageService.getUsagePaginatedByDepartment(departmentFilter, pageable)
                     .map(this::convertToResponse);
                     
             return ResponseEntity.ok(response);
@@ -173,6 +174,72 @@ public class UsageController {
         }
     }
 
+    /**
+     * Keyset-paginated usage history ordered by (usedAt, id) descending.
+     * Omit the cursor for the first page; pass nextCursorUsedAt / nextCursorId from the
+     * previous response to continue. Cost per page does not grow with the page depth.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<UsageCursorPage> getUsageByCursor(
+            @RequestParam(required = false) String cursorUsedAt,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String department,
+            HttpServletRequest request) {
+        try {
+            // Get current user from JWT token
+            String username = getCurrentUsername(request);
+            if (username == null) {
+                logger.warn("Authentication failed for getUsageByCursor");
+                return ResponseEntity.status(401).build();
+            }
+            
+            User user = userService.findByUsername(username);
+            if (user == null) {
+                logger.warn("User not found: {}", username);
+                return ResponseEntity.status(404).build();
+            }
+            
+            if (size <= 0 || size > 200) {
+                return ResponseEntity.badRequest().build();
+            }
+            
+            LocalDateTime cursor = null;
+            if (cursorUsedAt != null && !cursorUsedAt.isEmpty()) {
+                cursor = LocalDateTime.parse(cursorUsedAt, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            }
+            
+            String departmentFilter = getDepartmentFilter(user, department);
+            
+            // Fetch one extra row to know whether another page exists
+            List<Usage> rows = usageService.getUsageKeysetPage(departmentFilter, cursor, cursorId, size + 1);
+            boolean hasMore = rows.size() > size;
+            if (hasMore) {
+                rows = rows.subList(0, size);
+            }
+            
+            List<UsageResponse> content = rows.stream()
+                    .map(this::convertToResponse)
+                    .collect(Collectors.toList());
+            
+            Usage last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+            UsageCursorPage response = new UsageCursorPage(
+                    content,
+                    content.size(),
+                    hasMore,
+                    hasMore ? last.getUsedAt() : null,
+                    hasMore ? last.getId() : null
+            );
+            
+            return ResponseEntity.ok(response);
+        } catch (java.time.format.DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error getting usage records by cursor", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/item/{itemId}")
     public List<UsageResponse> getUsageByItem(@PathVariable Long itemId) {
         return usageService.getUsageByItem(itemId).stream()
@@ -293,111 +360,93 @@ public class UsageController {
     }
 
     @GetMapping("/export/excel")
-    public ResponseEntity<byte[]> exportUsageToExcel(HttpServletRequest request) {
-        try {
-            // Get current user from JWT token
-            String username = getCurrentUsername(request);
-            if (username == null) {
-                logger.warn("Authentication failed for exportUsageToExcel");
-                return ResponseEntity.status(401).build();
-            }
-            
-            User user = userService.findByUsername(username);
-            if (user == null) {
-                logger.warn("User not found: {}", username);
-                return ResponseEntity.status(404).build();
-            }
-            
-            // Get department filter based on user role
-            String departmentFilter = getDepartmentFilter(user, null);
-            
-            List<Usage> usageRecords;
-            String filename;
-            
-            if (departmentFilter != null) {
-                // Filter by department (for ADMIN/USER or OWNER with department filter)
-                usageRecords = usageService.getUsageByDepartment(departmentFilter);
-                filename = "usage_report_" + departmentFilter.replaceAll("[^a-zA-Z0-9]", "_") + ".xlsx";
-                logger.info("Exporting usage records for department: {} by user: {}", departmentFilter, username);
-            } else {
-                // Show all (only for OWNER)
-                usageRecords = usageService.getAllUsage();
-                filename = "usage_report_all_departments.xlsx";
-                logger.info("Exporting all usage records by OWNER user: {}", username);
-            }
-            
-            byte[] excelData = excelExportService.exportUsageToExcel(usageRecords);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setContentLength(excelData.length);
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelData);
-        } catch (Exception e) {
-            logger.error("Error exporting usage data", e);
-            return ResponseEntity.internalServerError().build();
+    public void exportUsageToExcel(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Get current user from JWT token
+        String username = getCurrentUsername(request);
+        if (username == null) {
+            logger.warn("Authentication failed for exportUsageToExcel");
+            response.sendError(401);
+            return;
+        }
+        
+        User user = userService.findByUsername(username);
+        if (user == null) {
+            logger.warn("User not found: {}", username);
+            response.sendError(404);
+            return;
         }
+        
+        // Get department filter based on user role
+        String departmentFilter = getDepartmentFilter(user, null);
+        
+        String filename;
+        if (departmentFilter != null) {
+            // Filter by department (for ADMIN/USER or OWNER with department filter)
+            filename = "usage_report_" + departmentFilter.replaceAll("[^a-zA-Z0-9]", "_") + ".xlsx";
+            logger.info("Exporting usage records for department: {} by user: {}", departmentFilter, username);
+        } else {
+            // Show all (only for OWNER)
+            filename = "usage_report_all_departments.xlsx";
+            logger.info("Exporting all usage records by OWNER user: {}", username);
+        }
+        
+        Specification<Usage> spec = usageService.buildUsageFilterSpecification(null, null, null, departmentFilter, null);
+        streamExcelReport(response, filename, spec);
     }
 
     @GetMapping("/export/excel/date-range")
-    public ResponseEntity<byte[]> exportUsageToExcelByDateRange(
+    public void exportUsageToExcelByDateRange(
             @RequestParam String startDate,
-            @RequestParam String endDate) {
+            @RequestParam String endDate,
+            HttpServletResponse response) throws IOException {
+        LocalDateTime start;
+        LocalDateTime end;
         try {
             DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-            LocalDateTime start = LocalDateTime.parse(startDate + "T00:00:00", formatter);
-            LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59", formatter);
-            
-            List<Usage> usageRecords = usageService.getUsageInDateRange(start, end);
-            byte[] excelData = excelExportService.exportUsageToExcel(usageRecords);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", "usage_report_" + startDate + "_to_" + endDate + ".xlsx");
-            headers.setContentLength(excelData.length);
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelData);
+            start = LocalDateTime.parse(startDate + "T00:00:00", formatter);
+            end = LocalDateTime.parse(endDate + "T23:59:59", formatter);
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            response.sendError(400);
+            return;
         }
+        
+        Specification<Usage> spec = usageService.buildUsageFilterSpecification(start, end, null, null, null);
+        streamExcelReport(response, "usage_report_" + startDate + "_to_" + endDate + ".xlsx", spec);
     }
 
     @GetMapping("/export/excel/filtered")
-    public ResponseEntity<byte[]> exportFilteredUsageToExcel(
+    public void exportFilteredUsageToExcel(
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
             @RequestParam(required = false) String userName,
             @RequestParam(required = false) String department,
             @RequestParam(required = false) String barcodeOrItemCode,
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        // Get current user from JWT token
+        String currentUsername = getCurrentUsername(request);
+        if (currentUsername == null) {
+            logger.warn("Authentication failed for exportFilteredUsageToExcel");
+            response.sendError(401);
+            return;
+        }
+        
+        User user = userService.findByUsername(currentUsername);
+        if (user == null) {
+            logger.warn("User not found: {}", currentUsername);
+            response.sendError(404);
+            return;
+        }
+        
+        // Apply role-based department filtering
+        String effectiveDepartment = getDepartmentFilter(user, department);
+        
+        logger.info("User {} (role: {}) exporting filtered usage with department: {} (requested: {})", 
+                currentUsername, user.getRole(), effectiveDepartment, department);
+        
+        LocalDateTime start = null;
+        LocalDateTime end = null;
         try {
-            // Get current user from JWT token
-            String currentUsername = getCurrentUsername(request);
-            if (currentUsername == null) {
-                logger.warn("Authentication failed for exportFilteredUsageToExcel");
-                return ResponseEntity.status(401).build();
-            }
-            
-            User user = userService.findByUsername(currentUsername);
-            if (user == null) {
-                logger.warn("User not found: {}", currentUsername);
-                return ResponseEntity.status(404).build();
-            }
-            
-            // Apply role-based department filtering
-            String effectiveDepartment = getDepartmentFilter(user, department);
-            
-            logger.info("User {} (role: {}) exporting filtered usage with department: {} (requested: {})", 
-                    currentUsername, user.getRole(), effectiveDepartment, department);
-            
-            LocalDateTime start = null;
-            LocalDateTime end = null;
-            
             if (startDate != null && !startDate.isEmpty()) {
                 DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
                 start = LocalDateTime.parse(startDate + "T00:00:00", formatter);
@@ -407,40 +456,128 @@ public class UsageController {
                 DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
                 end = LocalDateTime.parse(endDate + "T23:59:59", formatter);
             }
-            
-            List<Usage> usageRecords = usageService.getUsageWithFilters(start, end, userName, effectiveDepartment, barcodeOrItemCode);
-            byte[] excelData = excelExportService.exportUsageToExcel(usageRecords);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            
-            // Create a more descriptive filename based on applied filters
-            StringBuilder filename = new StringBuilder("filtered_usage_report");
-            if (startDate != null && !startDate.isEmpty() && endDate != null && !endDate.isEmpty()) {
-                filename.append("_").append(startDate).append("_to_").append(endDate);
-            }
-            if (userName != null && !userName.isEmpty()) {
-                filename.append("_user_").append(userName.replaceAll("[^a-zA-Z0-9]", "_"));
+        } catch (Exception e) {
+            response.sendError(400);
+            return;
+        }
+        
+        // Create a more descriptive filename based on applied filters
+        StringBuilder filename = new StringBuilder("filtered_usage_report");
+        if (startDate != null && !startDate.isEmpty() && endDate != null && !endDate.isEmpty()) {
+            filename.append("_").append(startDate).append("_to_").append(endDate);
+        }
+        if (userName != null && !userName.isEmpty()) {
+            filename.append("_user_").append(userName.replaceAll("[^a-zA-Z0-9]", "_"));
+        }
+        if (department != null && !department.isEmpty()) {
+            filename.append("_dept_").append(department.replaceAll("[^a-zA-Z0-9]", "_"));
+        }
+        if (barcodeOrItemCode != null && !barcodeOrItemCode.isEmpty()) {
+            filename.append("_item_").append(barcodeOrItemCode.replaceAll("[^a-zA-Z0-9]", "_"));
+        }
+        filename.append(".xlsx");
+        
+        Specification<Usage> spec = usageService.buildUsageFilterSpecification(start, end, userName, effectiveDepartment, barcodeOrItemCode);
+        streamExcelReport(response, filename.toString(), spec);
+    }
+
+    /**
+     * Raw usage export for BI pipelines: gzip-compressed CSV read in keyset-paged chunks.
+     * Honors the same role-based department and date filters as /export/excel/filtered.
+     */
+    @GetMapping("/export/csv")
+    public void exportUsageToCsv(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String userName,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String barcodeOrItemCode,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        // Get current user from JWT token
+        String currentUsername = getCurrentUsername(request);
+        if (currentUsername == null) {
+            logger.warn("Authentication failed for exportUsageToCsv");
+            response.sendError(401);
+            return;
+        }
+        
+        User user = userService.findByUsername(currentUsername);
+        if (user == null) {
+            logger.warn("User not found: {}", currentUsername);
+            response.sendError(404);
+            return;
+        }
+        
+        // Apply role-based department filtering
+        String effectiveDepartment = getDepartmentFilter(user, department);
+        
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        try {
+            if (startDate != null && !startDate.isEmpty()) {
+                start = LocalDateTime.parse(startDate + "T00:00:00", DateTimeFormatter.ISO_LOCAL_DATE_TIME);
             }
-            if (department != null && !department.isEmpty()) {
-                filename.append("_dept_").append(department.replaceAll("[^a-zA-Z0-9]", "_"));
+            if (endDate != null && !endDate.isEmpty()) {
+                end = LocalDateTime.parse(endDate + "T23:59:59", DateTimeFormatter.ISO_LOCAL_DATE_TIME);
             }
-            if (barcodeOrItemCode != null && !barcodeOrItemCode.isEmpty()) {
-                filename.append("_item_").append(barcodeOrItemCode.replaceAll("[^a-zA-Z0-9]", "_"));
+        } catch (Exception e) {
+            response.sendError(400);
+            return;
+        }
+        
+        String filename = "usage_export" +
+                (effectiveDepartment != null ? "_" + effectiveDepartment.replaceAll("[^a-zA-Z0-9]", "_") : "") +
+                ".csv.gz";
+        response.setContentType("application/gzip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        
+        long startedAt = System.nanoTime();
+        try {
+            long rows = bulkExportService.writeUsageCsv(start, end, userName, effectiveDepartment,
+                    barcodeOrItemCode, response.getOutputStream());
+            response.flushBuffer();
+            logExportTiming("CSV", rows, startedAt);
+        } catch (Exception e) {
+            logger.error("Error exporting usage data as CSV", e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(500);
             }
-            filename.append(".xlsx");
-            
-            headers.setContentDispositionFormData("attachment", filename.toString());
-            headers.setContentLength(excelData.length);
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelData);
+        }
+    }
+
+    /**
+     * Stream an Excel usage report directly into the response body.
+     * No Content-Length is sent - the workbook is never materialized in memory.
+     */
+    private void streamExcelReport(HttpServletResponse response, String filename, Specification<Usage> spec) {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        long startedAt = System.nanoTime();
+        try {
+            long rows = usageService.writeUsageExcelReport(spec, response.getOutputStream());
+            response.flushBuffer();
+            logExportTiming("Excel", rows, startedAt);
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            logger.error("Error exporting usage data", e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(500);
+            }
         }
     }
 
+    /**
+     * Log export throughput so the Excel (POI) and raw CSV paths can be compared
+     */
+    private void logExportTiming(String format, long rows, long startedAtNanos) {
+        long elapsedMs = Math.max(1, (System.nanoTime() - startedAtNanos) / 1_000_000);
+        logger.info("Usage {} export: {} rows in {} ms ({} rows/s)", format, rows, elapsedMs, rows * 1000 / elapsedMs);
+    }
+
     private UsageResponse convertToResponse(Usage usage) {
         UsageResponse.ItemSummary itemSummary = new UsageResponse.ItemSummary();
         itemSummary.setId(usage.getItem().getId());
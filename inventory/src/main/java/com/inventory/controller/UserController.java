@@ -3,7 +3,7 @@ package com.inventory.controller;
 import com.inventory.dto.UserSettingsRequest;
 import com.inventory.entity.User;
 import com.inventory.service.UserService;
-import com.inventory.service.AlertService;
+import com.inventory.service.AlertReevaluationService;
 import com.inventory.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -34,7 +34,7 @@ public class UserController {
     private JwtUtil jwtUtil;
     
     @Autowired
-    private AlertService alertService;
+    private AlertReevaluationService alertReevaluationService;
 
     @Autowired
     private UserRepository userRepository;
@@ -132,12 +132,11 @@ public class UserController {
                     user.getUsername(), 
                     oldWarningThreshold, user.getWarningThreshold(),
                     oldCriticalThreshold, user.getCriticalThreshold());
-                // We need to inject AlertService here
                 try {
-                    // This will be handled by importing AlertService
-                    alertService.reevaluateAlertsForUserThresholds(user);
+                    // Runs in the background; progress is available from GET /user/settings/alert-reevaluation
+                    alertReevaluationService.submit(user, oldWarningThreshold, oldCriticalThreshold);
                 } catch (Exception e) {
-                    logger.warn("Failed to re-evaluate alerts after threshold change: {}", e.getMessage());
+                    logger.warn("Failed to queue alert re-evaluation after threshold change: {}", e.getMessage());
                     // Don't fail the settings update if alert re-evaluation fails
                 }
             }
@@ -164,6 +163,28 @@ public class UserController {
         }
     }
 
+    /**
+     * Progress of the alert re-evaluation started by the user's latest threshold change
+     */
+    @GetMapping("/settings/alert-reevaluation")
+    public ResponseEntity<?> getAlertReevaluationProgress(HttpServletRequest request) {
+        String username = getCurrentUsername(request);
+        if (username == null) {
+            return ResponseEntity.status(401).body(Map.of("message", "Authentication required"));
+        }
+
+        User user = userService.findByUsername(username);
+        if (user == null) {
+            return ResponseEntity.status(404).body(Map.of("message", "User not found"));
+        }
+
+        Map<String, Object> progress = alertReevaluationService.getProgress(user.getId());
+        if (progress == null) {
+            return ResponseEntity.ok(Map.of("status", "NONE"));
+        }
+        return ResponseEntity.ok(progress);
+    }
+
     @GetMapping("/quick-actions")
     public ResponseEntity<Map<String, Object>> getQuickActions(HttpServletRequest request) {
         logger.info("=== Quick Actions GET Request ===");
@@ -0,0 +1,24 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of an alert listing using keyset pagination on (timestamp, id), where the timestamp is
+ * createdAt, ignoredAt or resolvedAt depending on the listing.
+ * Pass nextCursorAt / nextCursorId back to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertCursorPage {
+    private List<AlertResponse> content;
+    private int size;
+    private boolean hasMore;
+    private LocalDateTime nextCursorAt;
+    private Long nextCursorId;
+}
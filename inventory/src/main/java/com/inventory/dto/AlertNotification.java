@@ -0,0 +1,91 @@
+package com.inventory.dto;
+
+import com.inventory.entity.Alert;
+import com.inventory.entity.Item;
+
+import java.time.LocalDateTime;
+
+/**
+ * What an alert email shows, copied from the alert when the notification is queued.
+ * The copy is detached from the persistence context, so it can be rendered later on another thread.
+ */
+public class AlertNotification {
+    private final Long alertId;
+    private final String alertType;
+    private final String itemName;
+    private final String itemCode;
+    private final String location;
+    private final String barcode;
+    private final int currentInventory;
+    private final int safetyStockThreshold;
+    private final LocalDateTime createdAt;
+
+    public AlertNotification(Long alertId, String alertType, String itemName, String itemCode, String location,
+                             String barcode, int currentInventory, int safetyStockThreshold, LocalDateTime createdAt) {
+        this.alertId = alertId;
+        this.alertType = alertType;
+        this.itemName = itemName;
+        this.itemCode = itemCode;
+        this.location = location;
+        this.barcode = barcode;
+        this.currentInventory = currentInventory;
+        this.safetyStockThreshold = safetyStockThreshold;
+        this.createdAt = createdAt;
+    }
+
+    public static AlertNotification from(Alert alert) {
+        Item item = alert.getItem();
+        return new AlertNotification(
+            alert.getId(),
+            alert.getAlertType(),
+            item.getName(),
+            item.getCode(),
+            item.getLocation(),
+            item.getBarcode(),
+            alert.getCurrentInventory(),
+            alert.getSafetyStockThreshold(),
+            alert.getCreatedAt() != null ? alert.getCreatedAt() : LocalDateTime.now()
+        );
+    }
+
+    // Getters
+    public Long getAlertId() {
+        return alertId;
+    }
+
+    public String getAlertType() {
+        return alertType;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public String getItemCode() {
+        return itemCode;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public int getCurrentInventory() {
+        return currentInventory;
+    }
+
+    public int getSafetyStockThreshold() {
+        return safetyStockThreshold;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isCritical() {
+        return "CRITICAL_STOCK".equals(alertType);
+    }
+}
@@ -50,4 +50,19 @@ public class AlertResponse {
         this.readAt = readAt;
         this.ignoredAt = ignoredAt;
     }
-} 
\ No newline at end of file
+
+    // Flat form for JPQL constructor expressions (AlertRepository listings), so neither Alert nor Item is hydrated
+    public AlertResponse(Long id, Long itemId, String itemName, String itemCode, String itemBarcode,
+                        String alertType, String message,
+                        Integer currentInventory, Integer pendingPO, Integer usedInventory,
+                        Integer safetyStockThreshold, Boolean resolved, Boolean read, Boolean ignored,
+                        LocalDateTime createdAt, LocalDateTime resolvedAt, LocalDateTime readAt,
+                        LocalDateTime ignoredAt) {
+        this(id, new ItemSummary(), alertType, message, currentInventory, pendingPO, usedInventory,
+            safetyStockThreshold, resolved, read, ignored, createdAt, resolvedAt, readAt, ignoredAt);
+        this.item.setId(itemId);
+        this.item.setName(itemName);
+        this.item.setCode(itemCode);
+        this.item.setBarcode(itemBarcode);
+    }
+}
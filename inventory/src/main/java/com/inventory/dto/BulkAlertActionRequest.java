@@ -0,0 +1,20 @@
+package com.inventory.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Target of a bulk alert action: either explicit alert ids, or every visible alert matching
+ * status (all, active, unread or ignored) and, optionally, one department ('' = public items)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAlertActionRequest {
+    private List<Long> ids;
+    private String status;
+    private String department;
+}
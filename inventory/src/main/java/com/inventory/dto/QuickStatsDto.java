@@ -1,6 +1,10 @@
 package com.inventory.dto;
 
+import com.inventory.entity.Item;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class QuickStatsDto {
     private String department; // null means all departments
@@ -13,6 +17,9 @@ public class QuickStatsDto {
     private double averageQuantity;
     private int itemsBelowSafetyStock;
     private int criticalStockItems;
+    private Map<Item.ABCCategory, Long> itemsByCategory; // ABC category -> item count
+    private Map<String, Long> queryTimingsMs; // per-panel query time
+    private List<String> unavailableSections = new ArrayList<>(); // panels that failed or timed out
     
     public QuickStatsDto() {}
     
@@ -96,4 +103,28 @@ public class QuickStatsDto {
     public void setCriticalStockItems(int criticalStockItems) {
         this.criticalStockItems = criticalStockItems;
     }
-} 
\ No newline at end of file
+    
+    public Map<Item.ABCCategory, Long> getItemsByCategory() {
+        return itemsByCategory;
+    }
+    
+    public void setItemsByCategory(Map<Item.ABCCategory, Long> itemsByCategory) {
+        this.itemsByCategory = itemsByCategory;
+    }
+    
+    public Map<String, Long> getQueryTimingsMs() {
+        return queryTimingsMs;
+    }
+    
+    public void setQueryTimingsMs(Map<String, Long> queryTimingsMs) {
+        this.queryTimingsMs = queryTimingsMs;
+    }
+    
+    public List<String> getUnavailableSections() {
+        return unavailableSections;
+    }
+    
+    public void setUnavailableSections(List<String> unavailableSections) {
+        this.unavailableSections = unavailableSections;
+    }
+} 
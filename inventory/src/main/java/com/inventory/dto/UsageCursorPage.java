@@ -0,0 +1,23 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of usage history using keyset pagination on (usedAt, id).
+ * Pass nextCursorUsedAt / nextCursorId back to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageCursorPage {
+    private List<UsageResponse> content;
+    private int size;
+    private boolean hasMore;
+    private LocalDateTime nextCursorUsedAt;
+    private Long nextCursorId;
+}
@@ -59,6 +59,11 @@ public class Alert {
     @Column(nullable = true)
     private LocalDateTime ignoredAt;
 
+    // Band last set by a user's threshold re-evaluation rather than the default thresholds;
+    // cleared when the alert is next evaluated against fresh stock figures
+    @Column(name = "user_threshold_band", nullable = false)
+    private Boolean userThresholdBand = false;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,33 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Alert counts for the items of one department ('' = public items).
+ * Rows are maintained by AlertCounterService; never written through JPA directly.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "alert_counters")
+public class AlertCounter {
+    @Id
+    @Column(nullable = false, length = 100)
+    private String department;
+
+    @Column(name = "active_count", nullable = false)
+    private Long activeCount;
+
+    @Column(name = "unread_count", nullable = false)
+    private Long unreadCount;
+
+    @Column(name = "ignored_count", nullable = false)
+    private Long ignoredCount;
+
+    @Column(name = "resolved_count", nullable = false)
+    private Long resolvedCount;
+}
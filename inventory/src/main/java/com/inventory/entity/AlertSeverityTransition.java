@@ -0,0 +1,51 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One severity change of an alert: opened (fromType = null), escalated / de-escalated, or resolved (toType = RESOLVED)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "alert_severity_history")
+public class AlertSeverityTransition {
+    public static final String RESOLVED = "RESOLVED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "alert_id", nullable = false)
+    private Long alertId;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "from_type", length = 30)
+    private String fromType;
+
+    @Column(name = "to_type", nullable = false, length = 30)
+    private String toType;
+
+    @Column(name = "current_inventory", nullable = false)
+    private Integer currentInventory;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public AlertSeverityTransition(Long alertId, Long itemId, String fromType, String toType, Integer currentInventory) {
+        this.alertId = alertId;
+        this.itemId = itemId;
+        this.fromType = fromType;
+        this.toType = toType;
+        this.currentInventory = currentInventory;
+        this.changedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,95 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One queued outbound email. MESSAGE rows are rendered when queued; ALERT rows are rendered when sent,
+ * together with the recipient's other pending alerts. The body is cleared once the row is SENT or FAILED,
+ * so a welcome email's temporary password is only stored until it has been delivered or given up on.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "email_outbox")
+public class EmailOutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Kind kind;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(length = 500)
+    private String subject;
+
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String body;
+
+    @Column(name = "reply_to")
+    private String replyTo;
+
+    @Column(name = "alert_id")
+    private Long alertId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public enum Kind {
+        MESSAGE, ALERT
+    }
+
+    public enum Status {
+        PENDING, SENDING, SENT, FAILED
+    }
+
+    public static EmailOutboxMessage message(String recipient, String subject, String body, String replyTo) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setKind(Kind.MESSAGE);
+        message.setRecipient(recipient);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setReplyTo(replyTo);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setNextAttemptAt(message.getCreatedAt());
+        return message;
+    }
+
+    public static EmailOutboxMessage alert(String recipient, Long alertId, LocalDateTime dueAt) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setKind(Kind.ALERT);
+        message.setRecipient(recipient);
+        message.setAlertId(alertId);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setNextAttemptAt(dueAt);
+        return message;
+    }
+}
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import com.inventory.event.ItemChangeListener;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -12,6 +15,7 @@ import java.util.List;
 @AllArgsConstructor
 @Entity
 @Table(name = "items")
+@EntityListeners(ItemChangeListener.class)
 public class Item {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -85,6 +89,16 @@ public class Item {
     @Column(columnDefinition = "TEXT")
     private String weeklyData; // JSON format: {"22": 100, "23": 95, "24": 80, ...}
 
+    // Stock-out forecast state, maintained incrementally by StockoutForecastService
+    @Column(name = "usage_rate_per_day")
+    private Double usageRatePerDay; // Exponentially weighted usage rate as of usageRateUpdatedAt
+
+    @Column(name = "usage_rate_updated_at")
+    private LocalDateTime usageRateUpdatedAt;
+
+    @Column(name = "lead_time_days")
+    private Double leadTimeDays; // Exponentially weighted purchase order lead time; null until a PO arrives
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -94,6 +108,12 @@ public class Item {
     @OneToMany(mappedBy = "item", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<PurchaseOrder> purchaseOrders;
 
+    // Department as last loaded / saved, lets ItemChangeListener report department moves
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String loadedDepartment;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -105,6 +125,11 @@ public class Item {
         updatedAt = LocalDateTime.now();
     }
 
+    @PostLoad
+    protected void onLoad() {
+        loadedDepartment = department;
+    }
+
     public boolean needsRestock() {
         return (currentInventory + pendingPO - usedInventory) < safetyStockThreshold;
     }
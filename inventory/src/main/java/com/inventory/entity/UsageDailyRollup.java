@@ -0,0 +1,50 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Per-day usage totals for one item, keyed by the item's department ('' = public item).
+ * Rows are maintained by UsageRollupService; never written through JPA directly.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "usage_daily_rollup")
+@IdClass(UsageDailyRollup.RollupKey.class)
+public class UsageDailyRollup {
+    @Id
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Id
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Id
+    @Column(nullable = false, length = 100)
+    private String department;
+
+    @Column(nullable = false)
+    private Long qty;
+
+    @Column(nullable = false)
+    private Integer events;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RollupKey implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private LocalDate day;
+        private Long itemId;
+        private String department;
+    }
+}
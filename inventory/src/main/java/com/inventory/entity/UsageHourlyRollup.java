@@ -0,0 +1,45 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Per-hour usage totals for one item; hourUtc is the start of the hour in UTC.
+ * Rows are maintained by UsageRollupService; never written through JPA directly.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "usage_hourly_rollup")
+@IdClass(UsageHourlyRollup.HourlyRollupKey.class)
+public class UsageHourlyRollup {
+    @Id
+    @Column(name = "hour_utc", nullable = false)
+    private LocalDateTime hourUtc;
+
+    @Id
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private Long qty;
+
+    @Column(nullable = false)
+    private Integer events;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HourlyRollupKey implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private LocalDateTime hourUtc;
+        private Long itemId;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import com.inventory.event.UserChangeListener;
 import java.time.LocalDateTime;
 
 @Data
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
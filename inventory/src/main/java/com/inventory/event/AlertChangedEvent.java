@@ -0,0 +1,34 @@
+package com.inventory.event;
+
+/**
+ * Published by AlertService whenever an alert is created or changes state
+ */
+public class AlertChangedEvent {
+
+    public enum Change {
+        CREATED, UPDATED, READ, IGNORED, RESOLVED
+    }
+
+    private final Long alertId;
+    private final Long itemId;
+    private final String itemDepartment;
+    private final Change change;
+    private final String alertType;
+    private final String message;
+
+    public AlertChangedEvent(Long alertId, Long itemId, String itemDepartment, Change change, String alertType, String message) {
+        this.alertId = alertId;
+        this.itemId = itemId;
+        this.itemDepartment = itemDepartment;
+        this.change = change;
+        this.alertType = alertType;
+        this.message = message;
+    }
+
+    public Long getAlertId() { return alertId; }
+    public Long getItemId() { return itemId; }
+    public String getItemDepartment() { return itemDepartment; }
+    public Change getChange() { return change; }
+    public String getAlertType() { return alertType; }
+    public String getMessage() { return message; }
+}
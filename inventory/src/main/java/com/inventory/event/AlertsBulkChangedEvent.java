@@ -0,0 +1,24 @@
+package com.inventory.event;
+
+import java.util.Set;
+
+/**
+ * Published once by AlertBulkActionService for a whole batch of alerts changed by one bulk action,
+ * instead of an AlertChangedEvent per alert
+ */
+public class AlertsBulkChangedEvent {
+    private final AlertChangedEvent.Change change;
+    private final Set<String> itemDepartments;
+    private final int alertCount;
+
+    public AlertsBulkChangedEvent(AlertChangedEvent.Change change, Set<String> itemDepartments, int alertCount) {
+        this.change = change;
+        this.itemDepartments = itemDepartments;
+        this.alertCount = alertCount;
+    }
+
+    public AlertChangedEvent.Change getChange() { return change; }
+    /** Departments of the changed alerts' items ('' = public items) */
+    public Set<String> getItemDepartments() { return itemDepartments; }
+    public int getAlertCount() { return alertCount; }
+}
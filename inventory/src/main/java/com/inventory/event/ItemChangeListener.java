@@ -0,0 +1,43 @@
+package com.inventory.event;
+
+import com.inventory.entity.Item;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns item writes into ItemChangedEvents.
+ * Item writes happen in many controllers and services; hooking the entity catches all of them.
+ * Listeners should use @TransactionalEventListener so they only see committed changes.
+ */
+@Component
+public class ItemChangeListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onItemSaved(Item item) {
+        eventPublisher.publishEvent(toEvent(item, false));
+        item.setLoadedDepartment(item.getDepartment());
+    }
+
+    @PostRemove
+    public void onItemRemoved(Item item) {
+        eventPublisher.publishEvent(toEvent(item, true));
+    }
+
+    private ItemChangedEvent toEvent(Item item, boolean removed) {
+        return new ItemChangedEvent(item.getId(), item.getDepartment(), item.getLoadedDepartment(), removed,
+            valueOrZero(item.getCurrentInventory()), valueOrZero(item.getPendingPO()),
+            valueOrZero(item.getUsedInventory()), valueOrZero(item.getSafetyStockThreshold()), item.getCategory());
+    }
+
+    private int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.inventory.event;
+
+import com.inventory.entity.Item;
+
+/**
+ * Published for every item insert, update and delete (see ItemChangeListener).
+ * previousDepartment is the department the item had when it was loaded, so a department move can be detected.
+ */
+public class ItemChangedEvent {
+    private final Long itemId;
+    private final String department;
+    private final String previousDepartment;
+    private final boolean removed;
+    private final int currentInventory;
+    private final int pendingPO;
+    private final int usedInventory;
+    private final int safetyStockThreshold;
+    private final Item.ABCCategory category;
+
+    public ItemChangedEvent(Long itemId, String department, String previousDepartment, boolean removed,
+                            int currentInventory, int pendingPO, int usedInventory, int safetyStockThreshold,
+                            Item.ABCCategory category) {
+        this.itemId = itemId;
+        this.department = department;
+        this.previousDepartment = previousDepartment;
+        this.removed = removed;
+        this.currentInventory = currentInventory;
+        this.pendingPO = pendingPO;
+        this.usedInventory = usedInventory;
+        this.safetyStockThreshold = safetyStockThreshold;
+        this.category = category;
+    }
+
+    public Long getItemId() { return itemId; }
+    public String getDepartment() { return department; }
+    public String getPreviousDepartment() { return previousDepartment; }
+    public boolean isRemoved() { return removed; }
+    public int getCurrentInventory() { return currentInventory; }
+    public int getPendingPO() { return pendingPO; }
+    public int getUsedInventory() { return usedInventory; }
+    public int getSafetyStockThreshold() { return safetyStockThreshold; }
+    public Item.ABCCategory getCategory() { return category; }
+}
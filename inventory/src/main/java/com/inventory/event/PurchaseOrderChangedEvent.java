@@ -0,0 +1,20 @@
+package com.inventory.event;
+
+/**
+ * Published by PurchaseOrderService when a purchase order is created, edited or marked as arrived
+ */
+public class PurchaseOrderChangedEvent {
+    private final Long purchaseOrderId;
+    private final Long itemId;
+    private final String itemDepartment;
+
+    public PurchaseOrderChangedEvent(Long purchaseOrderId, Long itemId, String itemDepartment) {
+        this.purchaseOrderId = purchaseOrderId;
+        this.itemId = itemId;
+        this.itemDepartment = itemDepartment;
+    }
+
+    public Long getPurchaseOrderId() { return purchaseOrderId; }
+    public Long getItemId() { return itemId; }
+    public String getItemDepartment() { return itemDepartment; }
+}
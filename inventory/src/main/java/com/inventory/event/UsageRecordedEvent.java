@@ -0,0 +1,29 @@
+package com.inventory.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by UsageService after a usage record has been inserted.
+ * itemDepartment is the item's department (null / empty = public item).
+ */
+public class UsageRecordedEvent {
+    private final Long usageId;
+    private final Long itemId;
+    private final String itemDepartment;
+    private final int quantityUsed;
+    private final LocalDateTime usedAt;
+
+    public UsageRecordedEvent(Long usageId, Long itemId, String itemDepartment, int quantityUsed, LocalDateTime usedAt) {
+        this.usageId = usageId;
+        this.itemId = itemId;
+        this.itemDepartment = itemDepartment;
+        this.quantityUsed = quantityUsed;
+        this.usedAt = usedAt;
+    }
+
+    public Long getUsageId() { return usageId; }
+    public Long getItemId() { return itemId; }
+    public String getItemDepartment() { return itemDepartment; }
+    public int getQuantityUsed() { return quantityUsed; }
+    public LocalDateTime getUsedAt() { return usedAt; }
+}
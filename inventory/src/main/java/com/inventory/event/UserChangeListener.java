@@ -0,0 +1,31 @@
+package com.inventory.event;
+
+import com.inventory.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns user writes into UserChangedEvents.
+ * Users are saved from registration, profile, settings and user management code; hooking the entity catches all of them.
+ */
+@Component
+public class UserChangeListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onUserSaved(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), false));
+    }
+
+    @PostRemove
+    public void onUserRemoved(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), true));
+    }
+}
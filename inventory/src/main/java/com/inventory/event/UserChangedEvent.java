@@ -0,0 +1,17 @@
+package com.inventory.event;
+
+/**
+ * Published by UserChangeListener when a user row is inserted, updated or deleted
+ */
+public class UserChangedEvent {
+    private final Long userId;
+    private final boolean removed;
+
+    public UserChangedEvent(Long userId, boolean removed) {
+        this.userId = userId;
+        this.removed = removed;
+    }
+
+    public Long getUserId() { return userId; }
+    public boolean isRemoved() { return removed; }
+}
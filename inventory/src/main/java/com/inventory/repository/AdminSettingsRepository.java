@@ -2,9 +2,16 @@ package com.inventory.repository;
 
 import com.inventory.entity.AdminSettings;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AdminSettingsRepository extends JpaRepository<AdminSettings, Long> {
     Optional<AdminSettings> findBySettingKey(String settingKey);
+    
+    // Changes whenever a setting is inserted or updated (every update bumps one row's version)
+    // Columns: row count, sum of row versions
+    @Query("SELECT COUNT(s), COALESCE(SUM(s.version), 0) FROM AdminSettings s")
+    List<Object[]> getVersionFingerprint();
 } 
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.inventory.repository;
+
+import com.inventory.entity.AlertCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertCounterRepository extends JpaRepository<AlertCounter, String> {
+    
+    // Apply one alert transition to its department row - must run in the transaction that changed the alert
+    @Modifying
+    @Query(value = "INSERT INTO alert_counters (department, active_count, unread_count, ignored_count, resolved_count) " +
+                   "VALUES (:department, :active, :unread, :ignored, :resolved) " +
+                   "ON DUPLICATE KEY UPDATE active_count = active_count + VALUES(active_count), " +
+                   "unread_count = unread_count + VALUES(unread_count), " +
+                   "ignored_count = ignored_count + VALUES(ignored_count), " +
+                   "resolved_count = resolved_count + VALUES(resolved_count)",
+           nativeQuery = true)
+    int addCounts(@Param("department") String department,
+                  @Param("active") long active,
+                  @Param("unread") long unread,
+                  @Param("ignored") long ignored,
+                  @Param("resolved") long resolved);
+    
+    // Counts visible to a user: OWNER sees all departments, others public items plus their department
+    // Columns: active, unread, ignored, resolved
+    @Query("SELECT COALESCE(SUM(c.activeCount), 0), COALESCE(SUM(c.unreadCount), 0), " +
+           "COALESCE(SUM(c.ignoredCount), 0), COALESCE(SUM(c.resolvedCount), 0) FROM AlertCounter c " +
+           "WHERE :ownerView = true OR c.department = '' OR c.department = :department")
+    List<Object[]> sumVisibleCounts(@Param("ownerView") boolean ownerView, @Param("department") String department);
+    
+    // Counts of one item's alerts, used to move them between departments
+    // Columns: active, unread, ignored, resolved
+    @Query("SELECT COALESCE(SUM(CASE WHEN a.resolved = false AND a.ignored = false THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN a.resolved = false AND a.ignored = false AND a.read = false THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN a.ignored = true THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN a.resolved = true THEN 1 ELSE 0 END), 0) " +
+           "FROM Alert a WHERE a.item.id = :itemId")
+    List<Object[]> countItemAlerts(@Param("itemId") Long itemId);
+    
+    // Exact counts from the alerts table, used by the periodic rebuild
+    // Columns: department, active, unread, ignored, resolved
+    @Query("SELECT COALESCE(i.department, ''), " +
+           "SUM(CASE WHEN a.resolved = false AND a.ignored = false THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.resolved = false AND a.ignored = false AND a.read = false THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.ignored = true THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.resolved = true THEN 1 ELSE 0 END) " +
+           "FROM Alert a JOIN a.item i GROUP BY COALESCE(i.department, '')")
+    List<Object[]> countAlertsByDepartment();
+    
+    // Lock every counter row (and the gaps between them) so transitions wait while the rebuild recounts
+    @Query(value = "SELECT department FROM alert_counters FOR UPDATE", nativeQuery = true)
+    List<String> lockAll();
+    
+    @Modifying
+    @Query("UPDATE AlertCounter c SET c.activeCount = 0, c.unreadCount = 0, c.ignoredCount = 0, c.resolvedCount = 0")
+    int resetAll();
+}
@@ -1,11 +1,20 @@
 package com.inventory.repository;
 
+import com.inventory.dto.AlertResponse;
 import com.inventory.entity.Alert;
 import com.inventory.entity.Item;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,4 +55,192 @@ public interface AlertRepository extends JpaRepository<Alert, Long> {
     // New method for resolved alerts
     @Query("SELECT a FROM Alert a JOIN FETCH a.item WHERE a.resolved = true ORDER BY a.resolvedAt DESC")
     List<Alert> findResolvedAlertsOrderByResolvedAtDesc();
-} 
\ No newline at end of file
+    
+    // Department-aware queries: visibility is applied in SQL instead of filtering in Java.
+    // ownerView = true returns everything; otherwise public items (no department) plus
+    // items of the given department are returned. Pass department = null for USER role.
+    
+    @Query(value = "SELECT a FROM Alert a JOIN FETCH a.item i WHERE " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department) " +
+                   "ORDER BY a.createdAt DESC, a.id DESC",
+           countQuery = "SELECT COUNT(a) FROM Alert a JOIN a.item i WHERE " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department)")
+    Page<Alert> findVisibleAlerts(@Param("ownerView") boolean ownerView,
+                                  @Param("department") String department,
+                                  Pageable pageable);
+    
+    @Query(value = "SELECT a FROM Alert a JOIN FETCH a.item i WHERE a.resolved = false AND a.ignored = false AND " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department) " +
+                   "ORDER BY a.createdAt DESC, a.id DESC",
+           countQuery = "SELECT COUNT(a) FROM Alert a JOIN a.item i WHERE a.resolved = false AND a.ignored = false AND " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department)")
+    Page<Alert> findVisibleActiveAlerts(@Param("ownerView") boolean ownerView,
+                                        @Param("department") String department,
+                                        Pageable pageable);
+    
+    @Query(value = "SELECT a FROM Alert a JOIN FETCH a.item i WHERE a.resolved = false AND a.read = false AND a.ignored = false AND " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department) " +
+                   "ORDER BY a.createdAt DESC, a.id DESC",
+           countQuery = "SELECT COUNT(a) FROM Alert a JOIN a.item i WHERE a.resolved = false AND a.read = false AND a.ignored = false AND " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department)")
+    Page<Alert> findVisibleUnreadAlerts(@Param("ownerView") boolean ownerView,
+                                        @Param("department") String department,
+                                        Pageable pageable);
+    
+    @Query(value = "SELECT a FROM Alert a JOIN FETCH a.item i WHERE a.ignored = true AND " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department) " +
+                   "ORDER BY a.ignoredAt DESC, a.id DESC",
+           countQuery = "SELECT COUNT(a) FROM Alert a JOIN a.item i WHERE a.ignored = true AND " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department)")
+    Page<Alert> findVisibleIgnoredAlerts(@Param("ownerView") boolean ownerView,
+                                         @Param("department") String department,
+                                         Pageable pageable);
+    
+    @Query(value = "SELECT a FROM Alert a JOIN FETCH a.item i WHERE a.resolved = true AND " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department) " +
+                   "ORDER BY a.resolvedAt DESC, a.id DESC",
+           countQuery = "SELECT COUNT(a) FROM Alert a JOIN a.item i WHERE a.resolved = true AND " +
+                   "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department)")
+    Page<Alert> findVisibleResolvedAlerts(@Param("ownerView") boolean ownerView,
+                                          @Param("department") String department,
+                                          Pageable pageable);
+    
+    @Query("SELECT COUNT(a) FROM Alert a JOIN a.item i WHERE a.resolved = false AND a.ignored = false AND " +
+           "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department)")
+    long countVisibleActiveAlerts(@Param("ownerView") boolean ownerView, @Param("department") String department);
+    
+    @Query("SELECT COUNT(a) FROM Alert a JOIN a.item i WHERE a.resolved = false AND a.read = false AND a.ignored = false AND " +
+           "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department)")
+    long countVisibleUnreadAlerts(@Param("ownerView") boolean ownerView, @Param("department") String department);
+
+    // Keyset pagination of the visible listings as AlertResponse rows, without loading Alert or Item entities.
+    // All / active / unread walk (created_at, id), ignored walks (ignored_at, id), resolved walks (resolved_at, id),
+    // newest first. Page size is taken from the Pageable, page number must be 0; Pageable.unpaged() returns all.
+
+    String ALERT_ROW = "SELECT new com.inventory.dto.AlertResponse(a.id, i.id, i.name, i.code, i.barcode, " +
+                       "a.alertType, a.message, a.currentInventory, a.pendingPO, a.usedInventory, a.safetyStockThreshold, " +
+                       "a.resolved, a.read, a.ignored, a.createdAt, a.resolvedAt, a.readAt, a.ignoredAt) " +
+                       "FROM Alert a JOIN a.item i WHERE " +
+                       "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department) ";
+
+    @Query(ALERT_ROW + "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlertResponse> findFirstVisibleAlertRows(@Param("ownerView") boolean ownerView,
+                                                  @Param("department") String department,
+                                                  Pageable pageable);
+
+    @Query(ALERT_ROW + "AND (a.createdAt < :cursorAt OR (a.createdAt = :cursorAt AND a.id < :cursorId)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlertResponse> findVisibleAlertRowsAfter(@Param("ownerView") boolean ownerView,
+                                                  @Param("department") String department,
+                                                  @Param("cursorAt") LocalDateTime cursorAt,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Pageable pageable);
+
+    @Query(ALERT_ROW + "AND a.resolved = false AND a.ignored = false ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlertResponse> findFirstVisibleActiveAlertRows(@Param("ownerView") boolean ownerView,
+                                                        @Param("department") String department,
+                                                        Pageable pageable);
+
+    @Query(ALERT_ROW + "AND a.resolved = false AND a.ignored = false " +
+           "AND (a.createdAt < :cursorAt OR (a.createdAt = :cursorAt AND a.id < :cursorId)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlertResponse> findVisibleActiveAlertRowsAfter(@Param("ownerView") boolean ownerView,
+                                                        @Param("department") String department,
+                                                        @Param("cursorAt") LocalDateTime cursorAt,
+                                                        @Param("cursorId") Long cursorId,
+                                                        Pageable pageable);
+
+    @Query(ALERT_ROW + "AND a.resolved = false AND a.read = false AND a.ignored = false ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlertResponse> findFirstVisibleUnreadAlertRows(@Param("ownerView") boolean ownerView,
+                                                        @Param("department") String department,
+                                                        Pageable pageable);
+
+    @Query(ALERT_ROW + "AND a.resolved = false AND a.read = false AND a.ignored = false " +
+           "AND (a.createdAt < :cursorAt OR (a.createdAt = :cursorAt AND a.id < :cursorId)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlertResponse> findVisibleUnreadAlertRowsAfter(@Param("ownerView") boolean ownerView,
+                                                        @Param("department") String department,
+                                                        @Param("cursorAt") LocalDateTime cursorAt,
+                                                        @Param("cursorId") Long cursorId,
+                                                        Pageable pageable);
+
+    @Query(ALERT_ROW + "AND a.ignored = true ORDER BY a.ignoredAt DESC, a.id DESC")
+    List<AlertResponse> findFirstVisibleIgnoredAlertRows(@Param("ownerView") boolean ownerView,
+                                                         @Param("department") String department,
+                                                         Pageable pageable);
+
+    @Query(ALERT_ROW + "AND a.ignored = true " +
+           "AND (a.ignoredAt < :cursorAt OR (a.ignoredAt = :cursorAt AND a.id < :cursorId)) " +
+           "ORDER BY a.ignoredAt DESC, a.id DESC")
+    List<AlertResponse> findVisibleIgnoredAlertRowsAfter(@Param("ownerView") boolean ownerView,
+                                                         @Param("department") String department,
+                                                         @Param("cursorAt") LocalDateTime cursorAt,
+                                                         @Param("cursorId") Long cursorId,
+                                                         Pageable pageable);
+
+    @Query(ALERT_ROW + "AND a.resolved = true ORDER BY a.resolvedAt DESC, a.id DESC")
+    List<AlertResponse> findFirstVisibleResolvedAlertRows(@Param("ownerView") boolean ownerView,
+                                                          @Param("department") String department,
+                                                          Pageable pageable);
+
+    @Query(ALERT_ROW + "AND a.resolved = true " +
+           "AND (a.resolvedAt < :cursorAt OR (a.resolvedAt = :cursorAt AND a.id < :cursorId)) " +
+           "ORDER BY a.resolvedAt DESC, a.id DESC")
+    List<AlertResponse> findVisibleResolvedAlertRowsAfter(@Param("ownerView") boolean ownerView,
+                                                          @Param("department") String department,
+                                                          @Param("cursorAt") LocalDateTime cursorAt,
+                                                          @Param("cursorId") Long cursorId,
+                                                          Pageable pageable);
+
+    @Query("SELECT a FROM Alert a WHERE a.item.id IN :itemIds AND a.resolved = false")
+    List<Alert> findUnresolvedByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    // Threshold re-evaluation (AlertReevaluationService). Band of an alert's recorded stock under a warning /
+    // critical percentage pair: 0 = above warning (NORMAL_STOCK, ignored), 1 = WARNING_STOCK, 2 = CRITICAL_STOCK,
+    // rounded like AlertService. Returns the next page after afterId of visible unresolved alerts that land in
+    // :band under the new thresholds but were in another band under the old ones.
+    // The rows are locked (FOR UPDATE) so the caller can apply the batch in the same transaction.
+    // Columns: id, item id, item department, alert type, ignored, read, current inventory
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a.id, i.id, i.department, a.alertType, a.ignored, a.read, a.currentInventory FROM Alert a JOIN a.item i " +
+           "WHERE a.resolved = false AND a.id > :afterId AND " +
+           "(:ownerView = true OR i.department IS NULL OR i.department = '' OR i.department = :department) AND " +
+           "(CASE WHEN a.safetyStockThreshold > 0 AND a.currentInventory <= ROUND(a.safetyStockThreshold * :newWarningPercent / 100.0, 0) " +
+           " THEN (CASE WHEN a.currentInventory <= ROUND(a.safetyStockThreshold * :newCriticalPercent / 100.0, 0) THEN 2 ELSE 1 END) " +
+           " ELSE 0 END) = :band AND " +
+           "(CASE WHEN a.safetyStockThreshold > 0 AND a.currentInventory <= ROUND(a.safetyStockThreshold * :oldWarningPercent / 100.0, 0) " +
+           " THEN (CASE WHEN a.currentInventory <= ROUND(a.safetyStockThreshold * :oldCriticalPercent / 100.0, 0) THEN 2 ELSE 1 END) " +
+           " ELSE 0 END) <> :band " +
+           "ORDER BY a.id")
+    List<Object[]> findThresholdBandChanges(@Param("ownerView") boolean ownerView,
+                                            @Param("department") String department,
+                                            @Param("oldWarningPercent") int oldWarningPercent,
+                                            @Param("oldCriticalPercent") int oldCriticalPercent,
+                                            @Param("newWarningPercent") int newWarningPercent,
+                                            @Param("newCriticalPercent") int newCriticalPercent,
+                                            @Param("band") int band,
+                                            @Param("afterId") long afterId,
+                                            Pageable pageable);
+
+    // Move a batch of alerts into one band: alerts above warning are ignored (keeping an earlier ignore time),
+    // alerts at or below warning are un-ignored; the message is rebuilt from the recorded stock.
+    // The alert is marked as banded by user thresholds so the default-threshold sweep keeps off it.
+    @Modifying
+    @Query("UPDATE Alert a SET a.alertType = :alertType, a.ignored = :ignored, a.userThresholdBand = true, " +
+           "a.ignoredAt = CASE WHEN :ignored = false THEN NULL WHEN a.ignored = true THEN a.ignoredAt ELSE :now END, " +
+           "a.message = CONCAT(:label, ' alert: ', (SELECT i.name FROM Item i WHERE i.id = a.item.id), " +
+           " ' (', (SELECT i.code FROM Item i WHERE i.id = a.item.id), ') has current inventory of ', " +
+           " CAST(a.currentInventory AS String), ' units (', " +
+           " CASE WHEN a.safetyStockThreshold > 0 THEN CAST(ROUND(a.currentInventory * 100.0 / a.safetyStockThreshold, 1) AS String) ELSE '0.0' END, " +
+           " '% of safety stock), evaluated with updated thresholds.') " +
+           "WHERE a.id IN :ids AND a.resolved = false")
+    int applyThresholdBand(@Param("ids") Collection<Long> ids,
+                           @Param("alertType") String alertType,
+                           @Param("label") String label,
+                           @Param("ignored") boolean ignored,
+                           @Param("now") LocalDateTime now);
+
+    // Alerts referenced by queued alert emails, with their items for rendering
+    @Query("SELECT a FROM Alert a JOIN FETCH a.item WHERE a.id IN :ids")
+    List<Alert> findAllWithItemByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,13 @@
+package com.inventory.repository;
+
+import com.inventory.entity.AlertSeverityTransition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertSeverityTransitionRepository extends JpaRepository<AlertSeverityTransition, Long> {
+    
+    List<AlertSeverityTransition> findByAlertIdOrderByChangedAtAscIdAsc(Long alertId);
+}
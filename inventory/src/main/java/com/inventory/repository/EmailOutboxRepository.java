@@ -0,0 +1,52 @@
+package com.inventory.repository;
+
+import com.inventory.entity.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Due rows, plus rows whose sender lease expired (the node died mid-send). Rows locked by another
+    // sender are skipped instead of waited for, so several workers and nodes can drain the table together.
+    @Query(value = "SELECT id FROM email_outbox " +
+                   "WHERE (status = 'PENDING' AND next_attempt_at <= :now) " +
+                   "OR (status = 'SENDING' AND locked_until < :now) " +
+                   "ORDER BY next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // The recipients' alert rows that are still inside their digest window, to go out with the due ones
+    @Query(value = "SELECT id FROM email_outbox " +
+                   "WHERE kind = 'ALERT' AND status = 'PENDING' AND recipient IN (:recipients) " +
+                   "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockPendingAlertIds(@Param("recipients") Collection<String> recipients);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = com.inventory.entity.EmailOutboxMessage$Status.SENDING, " +
+           "m.lockedUntil = :lockedUntil WHERE m.id IN :ids")
+    int markSending(@Param("ids") Collection<Long> ids, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // The body is dropped once sent: it may hold credentials (welcome email) and is not needed afterwards
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = com.inventory.entity.EmailOutboxMessage$Status.SENT, " +
+           "m.sentAt = :sentAt, m.lockedUntil = null, m.attempts = m.attempts + 1, m.body = null WHERE m.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Query("SELECT m.status, COUNT(m) FROM EmailOutboxMessage m GROUP BY m.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT MIN(m.createdAt) FROM EmailOutboxMessage m " +
+           "WHERE m.status = com.inventory.entity.EmailOutboxMessage$Status.PENDING")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    @Modifying
+    @Query(value = "DELETE FROM email_outbox WHERE status = 'SENT' AND sent_at < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
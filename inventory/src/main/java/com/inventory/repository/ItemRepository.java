@@ -13,15 +13,17 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     Optional<Item> findByCode(String code);
     Optional<Item> findByQrCodeId(String qrCodeId);
     
-    // Statistics Queries for Quick Stats Dashboard
+    // Items whose code equals the term or whose name contains it (n-gram FULLTEXT index, V24)
+    @Query(value = "SELECT id FROM items WHERE code = :code " +
+                   "UNION SELECT id FROM items WHERE MATCH(name) AGAINST (:phrase IN BOOLEAN MODE)",
+           nativeQuery = true)
+    List<Long> findIdsByCodeOrNameMatching(@Param("code") String code, @Param("phrase") String phrase);
     
-    // Get items that are at or below 110% of safety stock (low stock warning threshold)
-    @Query("SELECT i FROM Item i WHERE i.currentInventory <= CEILING(i.safetyStockThreshold * 1.1) AND i.currentInventory > i.safetyStockThreshold AND i.safetyStockThreshold > 0")
-    List<Item> findLowStockItems();
+    // Fallback for terms shorter than the n-gram token size
+    @Query("SELECT i.id FROM Item i WHERE i.code = :code OR LOWER(i.name) LIKE LOWER(CONCAT('%', :term, '%'))")
+    List<Long> findIdsByCodeOrNameContaining(@Param("code") String code, @Param("term") String term);
     
-    // Get items with configurable warning/critical stock levels for alerts
-    @Query("SELECT i FROM Item i WHERE i.currentInventory <= (i.safetyStockThreshold * :warningThresholdPercent / 100.0) AND i.safetyStockThreshold > 0 ORDER BY (i.currentInventory * 1.0 / i.safetyStockThreshold)")
-    List<Item> findStockAlertItems(@Param("warningThresholdPercent") int warningThresholdPercent);
+    // Statistics Queries for Quick Stats Dashboard
     
     // Get items below configurable warning threshold
     @Query("SELECT i FROM Item i WHERE i.currentInventory <= (i.safetyStockThreshold * :warningThresholdPercent / 100.0) AND i.safetyStockThreshold > 0")
@@ -31,14 +33,6 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT i FROM Item i WHERE i.currentInventory <= (i.safetyStockThreshold * :criticalThresholdPercent / 100.0) AND i.safetyStockThreshold > 0")
     List<Item> findCriticalStockItems(@Param("criticalThresholdPercent") int criticalThresholdPercent);
     
-    // Get general inventory statistics using configurable thresholds
-    @Query("SELECT COUNT(i), SUM(i.currentInventory), AVG(i.currentInventory), " +
-           "SUM(CASE WHEN i.currentInventory <= (i.safetyStockThreshold * :warningThresholdPercent / 100.0) THEN 1 ELSE 0 END), " +
-           "SUM(CASE WHEN i.currentInventory <= (i.safetyStockThreshold * :criticalThresholdPercent / 100.0) THEN 1 ELSE 0 END) " +
-           "FROM Item i WHERE i.safetyStockThreshold > 0")
-    Object[] getInventoryStatistics(@Param("warningThresholdPercent") int warningThresholdPercent, 
-                                   @Param("criticalThresholdPercent") int criticalThresholdPercent);
-    
     // Legacy methods for backward compatibility (can be removed later)
     @Deprecated
     @Query("SELECT i FROM Item i WHERE i.currentInventory < i.safetyStockThreshold AND i.safetyStockThreshold > 0")
@@ -66,23 +60,27 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT DISTINCT i.department FROM Item i WHERE i.department IS NOT NULL AND i.department != '' ORDER BY i.department")
     List<String> findDistinctDepartments();
     
-    // Department-aware low stock items
-    @Query("SELECT i FROM Item i WHERE (i.department IS NULL OR i.department = '' OR i.department = :department) " +
-           "AND i.currentInventory <= CEILING(i.safetyStockThreshold * 1.1) AND i.currentInventory > i.safetyStockThreshold AND i.safetyStockThreshold > 0")
-    List<Item> findLowStockItemsByDepartment(@Param("department") String department);
-    
-    // Department-aware critical stock items
-    @Query("SELECT i FROM Item i WHERE (i.department IS NULL OR i.department = '' OR i.department = :department) " +
-           "AND i.currentInventory <= (i.safetyStockThreshold * :criticalThresholdPercent / 100.0) AND i.safetyStockThreshold > 0")
-    List<Item> findCriticalStockItemsByDepartment(@Param("department") String department, @Param("criticalThresholdPercent") int criticalThresholdPercent);
-    
-    // Department-aware inventory statistics
-    @Query("SELECT COUNT(i), SUM(i.currentInventory), AVG(i.currentInventory), " +
-           "SUM(CASE WHEN i.currentInventory <= (i.safetyStockThreshold * :warningThresholdPercent / 100.0) THEN 1 ELSE 0 END), " +
-           "SUM(CASE WHEN i.currentInventory <= (i.safetyStockThreshold * :criticalThresholdPercent / 100.0) THEN 1 ELSE 0 END) " +
-           "FROM Item i WHERE i.safetyStockThreshold > 0 AND " +
-           "(:department IS NULL OR :department = '' OR i.department IS NULL OR i.department = '' OR i.department = :department)")
-    Object[] getInventoryStatisticsByDepartment(@Param("department") String department,
-                                               @Param("warningThresholdPercent") int warningThresholdPercent, 
-                                               @Param("criticalThresholdPercent") int criticalThresholdPercent);
+    // Load the in-memory item snapshot (ItemSnapshotService)
+    // Columns: id, department, current, pending PO, used, safety stock, category
+    @Query("SELECT i.id, i.department, i.currentInventory, i.pendingPO, i.usedInventory, i.safetyStockThreshold, i.category FROM Item i")
+    List<Object[]> findSnapshotColumns();
+    
+    // Items whose alerts are out of line with their stock (AlertSweeperService), in one pass over the items:
+    // at or below warning without any unresolved alert, above warning with unresolved alerts, or an open
+    // alert whose recorded stock figures differ from the item's. The warning level is rounded like
+    // AlertService does; the sweeper re-checks every candidate in Java. Stock-out forecast alerts sit above
+    // the warning level, so they are re-checked on every sweep and resolve once usage slows down.
+    // Alerts whose band was set by a user's threshold re-evaluation are left alone while the stock is unchanged.
+    @Query("SELECT i.id FROM Item i WHERE " +
+           "(i.safetyStockThreshold > 0 AND i.currentInventory <= ROUND(i.safetyStockThreshold * :warningThresholdPercent / 100.0, 0) " +
+           " AND NOT EXISTS (SELECT u.id FROM Alert u WHERE u.item = i AND u.resolved = false)) " +
+           "OR ((i.safetyStockThreshold <= 0 OR i.currentInventory > ROUND(i.safetyStockThreshold * :warningThresholdPercent / 100.0, 0)) " +
+           " AND EXISTS (SELECT u.id FROM Alert u WHERE u.item = i AND u.resolved = false AND NOT (u.userThresholdBand = true " +
+           "  AND u.currentInventory = i.currentInventory AND u.pendingPO = i.pendingPO AND u.usedInventory = i.usedInventory " +
+           "  AND u.safetyStockThreshold = i.safetyStockThreshold))) " +
+           "OR EXISTS (SELECT a.id FROM Alert a WHERE a.item = i AND a.resolved = false AND a.ignored = false AND " +
+           " (a.currentInventory <> i.currentInventory OR a.pendingPO <> i.pendingPO OR a.usedInventory <> i.usedInventory " +
+           "  OR a.safetyStockThreshold <> i.safetyStockThreshold)) " +
+           "ORDER BY i.id")
+    List<Long> findItemIdsWithStaleAlerts(@Param("warningThresholdPercent") int warningThresholdPercent);
 } 
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.inventory.repository;
+
+import com.inventory.entity.UsageDailyRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UsageDailyRollupRepository extends JpaRepository<UsageDailyRollup, UsageDailyRollup.RollupKey> {
+    
+    // Add one usage event to its day bucket - must run in the usage insert transaction
+    @Modifying
+    @Query(value = "INSERT INTO usage_daily_rollup (day, item_id, department, qty, events) " +
+                   "VALUES (:day, :itemId, :department, :qty, 1) " +
+                   "ON DUPLICATE KEY UPDATE qty = qty + VALUES(qty), events = events + 1",
+           nativeQuery = true)
+    int addUsage(@Param("day") LocalDate day,
+                 @Param("itemId") Long itemId,
+                 @Param("department") String department,
+                 @Param("qty") long qty);
+    
+    // Recompute the buckets for [startDate, endDate) from item_usage; idempotent, safe to re-run
+    @Modifying
+    @Query(value = "INSERT INTO usage_daily_rollup (day, item_id, department, qty, events) " +
+                   "SELECT DATE(u.used_at), u.item_id, COALESCE(i.department, ''), SUM(u.quantity_used), COUNT(*) " +
+                   "FROM item_usage u JOIN items i ON u.item_id = i.id " +
+                   "WHERE u.used_at >= :startDate AND u.used_at < :endDate " +
+                   "GROUP BY DATE(u.used_at), u.item_id, COALESCE(i.department, '') " +
+                   "ON DUPLICATE KEY UPDATE qty = VALUES(qty), events = VALUES(events)",
+           nativeQuery = true)
+    int backfillRange(@Param("startDate") LocalDateTime startDate,
+                      @Param("endDate") LocalDateTime endDate);
+    
+    // Raw (day, department, item, qty) buckets, used to reconcile the in-memory top items
+    @Query("SELECT r.day, r.department, r.itemId, r.qty FROM UsageDailyRollup r WHERE r.day >= :startDay")
+    List<Object[]> findBucketsSince(@Param("startDay") LocalDate startDay);
+    
+    // Daily totals across all departments
+    @Query("SELECT r.day, SUM(r.qty) FROM UsageDailyRollup r " +
+           "WHERE r.day >= :startDay AND r.day <= :endDay " +
+           "GROUP BY r.day ORDER BY r.day")
+    List<Object[]> getDailyTotals(@Param("startDay") LocalDate startDay,
+                                  @Param("endDay") LocalDate endDay);
+    
+    // Daily totals for items of one department
+    @Query("SELECT r.day, SUM(r.qty) FROM UsageDailyRollup r " +
+           "WHERE r.department = :department AND r.day >= :startDay AND r.day <= :endDay " +
+           "GROUP BY r.day ORDER BY r.day")
+    List<Object[]> getDailyTotalsByDepartment(@Param("department") String department,
+                                              @Param("startDay") LocalDate startDay,
+                                              @Param("endDay") LocalDate endDay);
+    
+    // Top items by total quantity used
+    @Query("SELECT i.id, i.name, i.code, SUM(r.qty) as totalUsage " +
+           "FROM UsageDailyRollup r, Item i WHERE i.id = r.itemId " +
+           "GROUP BY i.id, i.name, i.code " +
+           "ORDER BY totalUsage DESC")
+    List<Object[]> getTopUsageItems(Pageable pageable);
+    
+    // Top items by total quantity used within a day range
+    @Query("SELECT i.id, i.name, i.code, SUM(r.qty) as totalUsage " +
+           "FROM UsageDailyRollup r, Item i WHERE i.id = r.itemId " +
+           "AND r.day >= :startDay AND r.day <= :endDay " +
+           "GROUP BY i.id, i.name, i.code " +
+           "ORDER BY totalUsage DESC")
+    List<Object[]> getTopUsageItemsBetween(Pageable pageable,
+                                           @Param("startDay") LocalDate startDay,
+                                           @Param("endDay") LocalDate endDay);
+    
+    // Top items by total quantity used for one department
+    @Query("SELECT i.id, i.name, i.code, SUM(r.qty) as totalUsage " +
+           "FROM UsageDailyRollup r, Item i WHERE i.id = r.itemId AND r.department = :department " +
+           "GROUP BY i.id, i.name, i.code " +
+           "ORDER BY totalUsage DESC")
+    List<Object[]> getTopUsageItemsByDepartment(Pageable pageable, @Param("department") String department);
+    
+    // Total usage per department (public items excluded)
+    @Query("SELECT r.department, SUM(r.qty) as totalUsage FROM UsageDailyRollup r " +
+           "WHERE r.department <> '' " +
+           "GROUP BY r.department ORDER BY totalUsage DESC")
+    List<Object[]> getUsageByDepartment();
+}
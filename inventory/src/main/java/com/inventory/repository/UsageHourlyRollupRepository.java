@@ -0,0 +1,44 @@
+package com.inventory.repository;
+
+import com.inventory.entity.UsageHourlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UsageHourlyRollupRepository extends JpaRepository<UsageHourlyRollup, UsageHourlyRollup.HourlyRollupKey> {
+    
+    // Add usage to its UTC hour bucket - must run in the usage insert transaction
+    @Modifying
+    @Query(value = "INSERT INTO usage_hourly_rollup (hour_utc, item_id, qty, events) " +
+                   "VALUES (:hourUtc, :itemId, :qty, :events) " +
+                   "ON DUPLICATE KEY UPDATE qty = qty + VALUES(qty), events = events + VALUES(events)",
+           nativeQuery = true)
+    int addUsage(@Param("hourUtc") LocalDateTime hourUtc,
+                 @Param("itemId") Long itemId,
+                 @Param("qty") long qty,
+                 @Param("events") int events);
+    
+    // Overwrite a bucket with recomputed totals (backfill); idempotent, safe to re-run
+    @Modifying
+    @Query(value = "INSERT INTO usage_hourly_rollup (hour_utc, item_id, qty, events) " +
+                   "VALUES (:hourUtc, :itemId, :qty, :events) " +
+                   "ON DUPLICATE KEY UPDATE qty = VALUES(qty), events = VALUES(events)",
+           nativeQuery = true)
+    int replaceUsage(@Param("hourUtc") LocalDateTime hourUtc,
+                     @Param("itemId") Long itemId,
+                     @Param("qty") long qty,
+                     @Param("events") int events);
+    
+    // Hourly totals across all items in [startHourUtc, endHourUtc)
+    @Query("SELECT r.hourUtc, SUM(r.qty) FROM UsageHourlyRollup r " +
+           "WHERE r.hourUtc >= :startHourUtc AND r.hourUtc < :endHourUtc " +
+           "GROUP BY r.hourUtc ORDER BY r.hourUtc")
+    List<Object[]> getHourlyTotals(@Param("startHourUtc") LocalDateTime startHourUtc,
+                                   @Param("endHourUtc") LocalDateTime endHourUtc);
+}
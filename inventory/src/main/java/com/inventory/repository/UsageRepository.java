@@ -3,6 +3,7 @@ package com.inventory.repository;
 import com.inventory.entity.Usage;
 import com.inventory.entity.Item;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface UsageRepository extends JpaRepository<Usage, Long> {
+public interface UsageRepository extends JpaRepository<Usage, Long>, JpaSpecificationExecutor<Usage>, UsageRepositoryCustom {
     
     // Find all usage records for a specific item
     List<Usage> findByItemOrderByUsedAtDesc(Item item);
@@ -30,6 +31,35 @@ public interface UsageRepository extends JpaRepository<Usage, Long> {
     // Get paginated usage records
     Page<Usage> findAllByOrderByUsedAtDesc(Pageable pageable);
     
+    // Get paginated usage records for items of a specific department
+    @Query(value = "SELECT u FROM Usage u JOIN FETCH u.item i WHERE i.department = :department ORDER BY u.usedAt DESC, u.id DESC",
+           countQuery = "SELECT COUNT(u) FROM Usage u JOIN u.item i WHERE i.department = :department")
+    Page<Usage> findByItemDepartmentOrderByUsedAtDesc(@Param("department") String department, Pageable pageable);
+    
+    // Keyset pagination on (used_at, id) - page size is taken from the Pageable, page number must be 0
+    
+    @Query("SELECT u FROM Usage u JOIN FETCH u.item i ORDER BY u.usedAt DESC, u.id DESC")
+    List<Usage> findFirstKeysetPage(Pageable pageable);
+    
+    @Query("SELECT u FROM Usage u JOIN FETCH u.item i " +
+           "WHERE u.usedAt < :cursorUsedAt OR (u.usedAt = :cursorUsedAt AND u.id < :cursorId) " +
+           "ORDER BY u.usedAt DESC, u.id DESC")
+    List<Usage> findKeysetPageAfter(@Param("cursorUsedAt") LocalDateTime cursorUsedAt,
+                                    @Param("cursorId") Long cursorId,
+                                    Pageable pageable);
+    
+    @Query("SELECT u FROM Usage u JOIN FETCH u.item i WHERE i.department = :department " +
+           "ORDER BY u.usedAt DESC, u.id DESC")
+    List<Usage> findFirstKeysetPageByDepartment(@Param("department") String department, Pageable pageable);
+    
+    @Query("SELECT u FROM Usage u JOIN FETCH u.item i WHERE i.department = :department " +
+           "AND (u.usedAt < :cursorUsedAt OR (u.usedAt = :cursorUsedAt AND u.id < :cursorId)) " +
+           "ORDER BY u.usedAt DESC, u.id DESC")
+    List<Usage> findKeysetPageAfterByDepartment(@Param("department") String department,
+                                                @Param("cursorUsedAt") LocalDateTime cursorUsedAt,
+                                                @Param("cursorId") Long cursorId,
+                                                Pageable pageable);
+    
     // Get usage summary by item
     @Query("SELECT u.item.name, u.item.code, SUM(u.quantityUsed), COUNT(u) " +
            "FROM Usage u GROUP BY u.item.id, u.item.name, u.item.code " +
@@ -50,67 +80,32 @@ public interface UsageRepository extends JpaRepository<Usage, Long> {
     @Query("SELECT u FROM Usage u WHERE u.barcode = :searchTerm OR UPPER(u.item.code) = :searchTerm ORDER BY u.usedAt DESC")
     List<Usage> findByBarcodeOrItemCodeOrderByUsedAtDesc(@Param("searchTerm") String searchTerm);
 
-    // Advanced filtering with multiple criteria
-    @Query("SELECT u FROM Usage u WHERE " +
-           "(:startDate IS NULL OR u.usedAt >= :startDate) AND " +
-           "(:endDate IS NULL OR u.usedAt <= :endDate) AND " +
-           "(:userName IS NULL OR :userName = '' OR LOWER(u.userName) LIKE LOWER(CONCAT('%', :userName, '%'))) AND " +
-           "(:department IS NULL OR :department = '' OR u.item.department = :department) AND " +
-           "(:barcodeOrItemCode IS NULL OR :barcodeOrItemCode = '' OR " +
-           " u.barcode = :barcodeOrItemCode OR UPPER(u.item.code) = UPPER(:barcodeOrItemCode) OR " +
-           " LOWER(u.item.name) LIKE LOWER(CONCAT('%', :barcodeOrItemCode, '%'))) " +
-           "ORDER BY u.usedAt DESC")
-    List<Usage> findUsageWithFilters(@Param("startDate") LocalDateTime startDate,
-                                   @Param("endDate") LocalDateTime endDate,
-                                   @Param("userName") String userName,
-                                   @Param("department") String department,
-                                   @Param("barcodeOrItemCode") String barcodeOrItemCode);
+    // Substring search on user names backed by the n-gram FULLTEXT index (V24).
+    // Resolves the handful of distinct matching names so the main query can use user_name equality.
+    @Query(value = "SELECT DISTINCT user_name FROM item_usage " +
+                   "WHERE MATCH(user_name) AGAINST (:phrase IN BOOLEAN MODE)",
+           nativeQuery = true)
+    List<String> findUserNamesMatching(@Param("phrase") String phrase);
 
     // Statistics Queries for Quick Stats Dashboard
-    
-    // Get daily usage aggregated by date for the last N days
-    @Query(value = "SELECT DATE(used_at) as usage_date, SUM(quantity_used) as total_usage " +
-                   "FROM item_usage " +
-                   "WHERE used_at >= :startDate " +
-                   "GROUP BY DATE(used_at) " +
-                   "ORDER BY usage_date", 
+    // Daily / top-item / per-department totals are served by UsageDailyRollupRepository
+    
+    // Earliest recorded usage, used to bound the rollup backfill
+    @Query("SELECT MIN(u.usedAt) FROM Usage u")
+    LocalDateTime findEarliestUsedAt();
+    
+    // Usage per (minute, item) in [startDate, endDate), used to backfill the hourly rollup.
+    // Minutes rather than hours so zones with a 30 / 45 minute offset still land in the right UTC hour.
+    // The rows are read FOR SHARE: run it in the transaction that writes the buckets, so usage recorded
+    // meanwhile waits for that commit and its increment lands on the recomputed bucket instead of being overwritten.
+    // Columns: minute ('yyyy-MM-dd HH:mm:00'), item id, quantity, events
+    @Query(value = "SELECT DATE_FORMAT(u.used_at, '%Y-%m-%d %H:%i:00') AS used_minute, u.item_id, " +
+                   "SUM(u.quantity_used), COUNT(*) FROM item_usage u " +
+                   "WHERE u.used_at >= :startDate AND u.used_at < :endDate " +
+                   "GROUP BY used_minute, u.item_id FOR SHARE",
            nativeQuery = true)
-    List<Object[]> getDailyUsageStats(@Param("startDate") LocalDateTime startDate);
-    
-    // Get daily usage aggregated by date for a specific date range
-    @Query(value = "SELECT DATE(used_at) as usage_date, SUM(quantity_used) as total_usage " +
-                   "FROM item_usage " +
-                   "WHERE used_at >= :startDate AND used_at <= :endDate " +
-                   "GROUP BY DATE(used_at) " +
-                   "ORDER BY usage_date", 
-           nativeQuery = true)
-    List<Object[]> getDailyUsageStatsFiltered(@Param("startDate") LocalDateTime startDate,
-                                             @Param("endDate") LocalDateTime endDate);
-    
-    // Get top N most used items by total quantity used
-    @Query("SELECT u.item.id, u.item.name, u.item.code, SUM(u.quantityUsed) as totalUsage " +
-           "FROM Usage u " +
-           "GROUP BY u.item.id, u.item.name, u.item.code " +
-           "ORDER BY totalUsage DESC")
-    List<Object[]> getTopUsageItems(Pageable pageable);
-    
-    // Get top N most used items by total quantity used for a specific date range
-    @Query("SELECT u.item.id, u.item.name, u.item.code, SUM(u.quantityUsed) as totalUsage " +
-           "FROM Usage u " +
-           "WHERE u.usedAt >= :startDate AND u.usedAt <= :endDate " +
-           "GROUP BY u.item.id, u.item.name, u.item.code " +
-           "ORDER BY totalUsage DESC")
-    List<Object[]> getTopUsageItemsFiltered(Pageable pageable,
-                                           @Param("startDate") LocalDateTime startDate,
-                                           @Param("endDate") LocalDateTime endDate);
-    
-    // Get usage by department for analytics (grouped by item's department)
-    @Query("SELECT u.item.department, SUM(u.quantityUsed) as totalUsage " +
-           "FROM Usage u " +
-           "WHERE u.item.department IS NOT NULL " +
-           "GROUP BY u.item.department " +
-           "ORDER BY totalUsage DESC")
-    List<Object[]> getUsageByDepartment();
+    List<Object[]> sumUsageByMinute(@Param("startDate") LocalDateTime startDate,
+                                    @Param("endDate") LocalDateTime endDate);
     
     // Get usage statistics for a specific time period
     @Query("SELECT COUNT(u), SUM(u.quantityUsed), COUNT(DISTINCT u.item.id), COUNT(DISTINCT u.userName) " +
@@ -118,26 +113,4 @@ public interface UsageRepository extends JpaRepository<Usage, Long> {
            "WHERE u.usedAt >= :startDate AND u.usedAt <= :endDate")
     Object[] getUsageStatistics(@Param("startDate") LocalDateTime startDate, 
                                @Param("endDate") LocalDateTime endDate);
-    
-    // Department-specific queries for filtering
-    
-    // Get daily usage aggregated by date filtered by department
-    @Query(value = "SELECT DATE(u.used_at) as usage_date, SUM(u.quantity_used) as total_usage " +
-                   "FROM item_usage u " +
-                   "JOIN items i ON u.item_id = i.id " +
-                   "WHERE u.used_at >= :startDate AND " +
-                   "(:department IS NULL OR :department = '' OR i.department = :department) " +
-                   "GROUP BY DATE(u.used_at) " +
-                   "ORDER BY usage_date", 
-           nativeQuery = true)
-    List<Object[]> getDailyUsageByDepartment(@Param("startDate") LocalDateTime startDate,
-                                           @Param("department") String department);
-    
-    // Get top N most used items by total quantity used filtered by department
-    @Query("SELECT u.item.id, u.item.name, u.item.code, SUM(u.quantityUsed) as totalUsage " +
-           "FROM Usage u " +
-           "WHERE (:department IS NULL OR :department = '' OR u.item.department = :department) " +
-           "GROUP BY u.item.id, u.item.name, u.item.code " +
-           "ORDER BY totalUsage DESC")
-    List<Object[]> getTopUsageItemsByDepartment(Pageable pageable, @Param("department") String department);
 } 
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.inventory.repository;
+
+import com.inventory.entity.Usage;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface UsageRepositoryCustom {
+
+    /**
+     * Stream usage records matching the specification, newest first, through a forward-only
+     * read-only cursor. Rows are detached as they are emitted so the persistence context does
+     * not grow with the result size. Must be consumed (and closed) inside a transaction.
+     */
+    Stream<Usage> streamAll(Specification<Usage> spec);
+}
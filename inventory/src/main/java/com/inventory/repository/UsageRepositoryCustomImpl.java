@@ -0,0 +1,42 @@
+package com.inventory.repository;
+
+import com.inventory.entity.Usage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public class UsageRepositoryCustomImpl implements UsageRepositoryCustom {
+
+    // MySQL Connector/J only streams rows one at a time when the fetch size is Integer.MIN_VALUE;
+    // any other value without useCursorFetch=true buffers the whole result set in memory
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Usage> streamAll(Specification<Usage> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Usage> query = cb.createQuery(Usage.class);
+        Root<Usage> root = query.from(Usage.class);
+
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(root.get("usedAt")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, MYSQL_STREAMING_FETCH_SIZE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+}
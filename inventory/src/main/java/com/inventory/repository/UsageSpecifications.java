@@ -0,0 +1,79 @@
+package com.inventory.repository;
+
+import com.inventory.entity.Usage;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Building blocks for dynamic usage queries.
+ * Only the predicates for filters that were actually supplied are combined,
+ * so the generated SQL never carries ":param IS NULL OR ..." guards.
+ */
+public final class UsageSpecifications {
+
+    private UsageSpecifications() {
+    }
+
+    /**
+     * Fetch the item in the same query (skipped for count queries)
+     */
+    public static Specification<Usage> fetchItem() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("item", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Matches nothing - used when a name search resolved to no candidates
+     */
+    public static Specification<Usage> none() {
+        return (root, query, cb) -> cb.disjunction();
+    }
+
+    public static Specification<Usage> usedAtFrom(LocalDateTime startDate) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("usedAt"), startDate);
+    }
+
+    public static Specification<Usage> usedAtTo(LocalDateTime endDate) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("usedAt"), endDate);
+    }
+
+    /**
+     * Filter by the item's department (not the department stored on the usage record)
+     */
+    public static Specification<Usage> itemDepartment(String department) {
+        return (root, query, cb) -> cb.equal(root.get("item").get("department"), department);
+    }
+
+    public static Specification<Usage> userNameIn(Collection<String> userNames) {
+        return (root, query, cb) -> root.get("userName").in(userNames);
+    }
+
+    /**
+     * Unindexed substring match - only used for terms shorter than the n-gram token size
+     */
+    public static Specification<Usage> userNameContains(String term) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("userName")), "%" + term.toLowerCase() + "%");
+    }
+
+    /**
+     * Usage recorded with the given barcode, or for any of the given items
+     */
+    public static Specification<Usage> barcodeOrItemIn(String barcode, Collection<Long> itemIds) {
+        return (root, query, cb) -> {
+            if (itemIds == null || itemIds.isEmpty()) {
+                return cb.equal(root.get("barcode"), barcode);
+            }
+            return cb.or(
+                    cb.equal(root.get("barcode"), barcode),
+                    root.get("item").get("id").in(itemIds)
+            );
+        };
+    }
+}
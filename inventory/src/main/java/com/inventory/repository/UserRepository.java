@@ -2,6 +2,7 @@ package com.inventory.repository;
 
 import com.inventory.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
  
@@ -28,4 +29,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Find users by department
      */
     List<User> findByDepartment(String department);
+    
+    /**
+     * Row count and latest update time; changes whenever a user is added, changed or removed
+     */
+    @Query("SELECT COUNT(u), MAX(u.updatedAt) FROM User u")
+    List<Object[]> getChangeFingerprint();
 } 
\ No newline at end of file
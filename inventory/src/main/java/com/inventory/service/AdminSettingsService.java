@@ -2,14 +2,27 @@ package com.inventory.service;
 
 import com.inventory.entity.AdminSettings;
 import com.inventory.repository.AdminSettingsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 
+/**
+ * Admin settings are read on every scan and several times per dashboard render, so reads are served from an
+ * immutable in-memory snapshot. The snapshot is loaded once, replaced after this node commits an update, and
+ * reloaded when the settings version fingerprint shows that another node changed them.
+ */
 @Service
 public class AdminSettingsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminSettingsService.class);
+
     @Autowired
     private AdminSettingsRepository adminSettingsRepository;
 
@@ -24,17 +37,105 @@ public class AdminSettingsService {
     private static final int DEFAULT_WARNING_THRESHOLD = 100;  // 100% of safety stock
     private static final int DEFAULT_CRITICAL_THRESHOLD = 50;  // 50% of safety stock
 
-    public List<String> getItemDisplayFields() {
-        Optional<AdminSettings> setting = adminSettingsRepository.findBySettingKey(ITEM_DISPLAY_FIELDS_KEY);
-        if (setting.isPresent()) {
-            return Arrays.asList(setting.get().getSettingValue().split(","));
+    /**
+     * Parsed settings as of one load; never modified, replaced as a whole
+     */
+    private static final class SettingsSnapshot {
+        final List<String> itemDisplayFields;
+        final int warningThreshold;
+        final int criticalThreshold;
+        final List<Object> fingerprint;
+
+        SettingsSnapshot(List<String> itemDisplayFields, int warningThreshold, int criticalThreshold, List<Object> fingerprint) {
+            this.itemDisplayFields = itemDisplayFields;
+            this.warningThreshold = warningThreshold;
+            this.criticalThreshold = criticalThreshold;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private volatile SettingsSnapshot snapshot;
+
+    private SettingsSnapshot getSnapshot() {
+        SettingsSnapshot current = snapshot;
+        return current != null ? current : reloadSnapshot();
+    }
+
+    /**
+     * Read all settings and swap in a new snapshot; missing or invalid values fall back to the defaults
+     */
+    private synchronized SettingsSnapshot reloadSnapshot() {
+        // Read the fingerprint first: a write landing between the two reads is picked up by the next check
+        List<Object> fingerprint = getVersionFingerprint();
+        Map<String, String> values = new HashMap<>();
+        for (AdminSettings setting : adminSettingsRepository.findAll()) {
+            values.put(setting.getSettingKey(), setting.getSettingValue());
+        }
+
+        String displayFields = values.getOrDefault(ITEM_DISPLAY_FIELDS_KEY, DEFAULT_DISPLAY_FIELDS);
+        SettingsSnapshot loaded = new SettingsSnapshot(
+            Collections.unmodifiableList(Arrays.asList(displayFields.split(","))),
+            parseThreshold(values.get(WARNING_THRESHOLD_KEY), DEFAULT_WARNING_THRESHOLD),
+            parseThreshold(values.get(CRITICAL_THRESHOLD_KEY), DEFAULT_CRITICAL_THRESHOLD),
+            fingerprint
+        );
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private int parseThreshold(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private List<Object> getVersionFingerprint() {
+        List<Object[]> rows = adminSettingsRepository.getVersionFingerprint();
+        return rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0));
+    }
+
+    /**
+     * Pick up settings changed through another application node
+     */
+    @Scheduled(fixedDelayString = "${app.settings.version-check-ms:5000}")
+    public void checkForUpdates() {
+        try {
+            SettingsSnapshot current = snapshot;
+            if (current != null && !current.fingerprint.equals(getVersionFingerprint())) {
+                reloadSnapshot();
+                logger.info("Admin settings changed on another node, snapshot reloaded");
+            }
+        } catch (Exception e) {
+            logger.warn("Admin settings version check failed", e);
+        }
+    }
+
+    /**
+     * Reload the snapshot once the current transaction commits (immediately if there is none)
+     */
+    private void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadSnapshot();
+                }
+            });
         } else {
-            // Create default setting if it doesn't exist
-            createDefaultItemDisplaySetting();
-            return Arrays.asList(DEFAULT_DISPLAY_FIELDS.split(","));
+            reloadSnapshot();
         }
     }
 
+    public List<String> getItemDisplayFields() {
+        return getSnapshot().itemDisplayFields;
+    }
+
+    @Transactional
     public void updateItemDisplayFields(List<String> fields) {
         String fieldsValue = String.join(",", fields);
         Optional<AdminSettings> existing = adminSettingsRepository.findBySettingKey(ITEM_DISPLAY_FIELDS_KEY);
@@ -51,15 +152,7 @@ public class AdminSettingsService {
             );
             adminSettingsRepository.save(newSetting);
         }
-    }
-
-    private void createDefaultItemDisplaySetting() {
-        AdminSettings defaultSetting = new AdminSettings(
-            ITEM_DISPLAY_FIELDS_KEY,
-            DEFAULT_DISPLAY_FIELDS,
-            "Fields to display in Record Item Usage page when an item is scanned"
-        );
-        adminSettingsRepository.save(defaultSetting);
+        reloadAfterCommit();
     }
 
     public Map<String, String> getAvailableFields() {
@@ -88,40 +181,23 @@ public class AdminSettingsService {
     // Alert Threshold Methods
     
     public Map<String, Object> getAlertThresholds() {
+        // Both values from the same snapshot
+        SettingsSnapshot current = getSnapshot();
         Map<String, Object> thresholds = new HashMap<>();
-        thresholds.put("warningThreshold", getWarningThreshold());
-        thresholds.put("criticalThreshold", getCriticalThreshold());
+        thresholds.put("warningThreshold", current.warningThreshold);
+        thresholds.put("criticalThreshold", current.criticalThreshold);
         return thresholds;
     }
     
     public int getWarningThreshold() {
-        Optional<AdminSettings> setting = adminSettingsRepository.findBySettingKey(WARNING_THRESHOLD_KEY);
-        if (setting.isPresent()) {
-            try {
-                return Integer.parseInt(setting.get().getSettingValue());
-            } catch (NumberFormatException e) {
-                return DEFAULT_WARNING_THRESHOLD;
-            }
-        } else {
-            createDefaultAlertThresholds();
-            return DEFAULT_WARNING_THRESHOLD;
-        }
+        return getSnapshot().warningThreshold;
     }
     
     public int getCriticalThreshold() {
-        Optional<AdminSettings> setting = adminSettingsRepository.findBySettingKey(CRITICAL_THRESHOLD_KEY);
-        if (setting.isPresent()) {
-            try {
-                return Integer.parseInt(setting.get().getSettingValue());
-            } catch (NumberFormatException e) {
-                return DEFAULT_CRITICAL_THRESHOLD;
-            }
-        } else {
-            createDefaultAlertThresholds();
-            return DEFAULT_CRITICAL_THRESHOLD;
-        }
+        return getSnapshot().criticalThreshold;
     }
     
+    @Transactional
     public void updateAlertThresholds(int warningThreshold, int criticalThreshold) {
         // Update warning threshold
         Optional<AdminSettings> warningExisting = adminSettingsRepository.findBySettingKey(WARNING_THRESHOLD_KEY);
@@ -152,27 +228,6 @@ public class AdminSettingsService {
             );
             adminSettingsRepository.save(newSetting);
         }
-    }
-    
-    private void createDefaultAlertThresholds() {
-        // Create warning threshold if it doesn't exist
-        if (!adminSettingsRepository.findBySettingKey(WARNING_THRESHOLD_KEY).isPresent()) {
-            AdminSettings warningSetting = new AdminSettings(
-                WARNING_THRESHOLD_KEY,
-                String.valueOf(DEFAULT_WARNING_THRESHOLD),
-                "Warning threshold percentage for stock alerts"
-            );
-            adminSettingsRepository.save(warningSetting);
-        }
-        
-        // Create critical threshold if it doesn't exist
-        if (!adminSettingsRepository.findBySettingKey(CRITICAL_THRESHOLD_KEY).isPresent()) {
-            AdminSettings criticalSetting = new AdminSettings(
-                CRITICAL_THRESHOLD_KEY,
-                String.valueOf(DEFAULT_CRITICAL_THRESHOLD),
-                "Critical threshold percentage for stock alerts"
-            );
-            adminSettingsRepository.save(criticalSetting);
-        }
+        reloadAfterCommit();
     }
 } 
\ No newline at end of file
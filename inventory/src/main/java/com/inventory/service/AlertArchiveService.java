@@ -0,0 +1,150 @@
+package com.inventory.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Retention for closed alerts: alerts resolved more than app.alerts.archive.retention-days ago are moved
+ * from alerts to the compressed alerts_archive table, which only the NDJSON export reads.
+ * Ignored alerts that are still unresolved stay live: the sweep relies on their ignored marker so it does
+ * not alert the item again (AlertService.sweepItems).
+ *
+ * Rows move in batches of one transaction each (copy, delete, counter update), so a failed run leaves
+ * every alert in exactly one of the two tables and the next run continues where it stopped.
+ * Severity history rows are copied to alert_severity_history_archive before the delete removes them
+ * (ON DELETE CASCADE).
+ */
+@Service
+public class AlertArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertArchiveService.class);
+
+    // Column list shared by the copy; item columns are a snapshot taken at archive time
+    private static final String ARCHIVE_COLUMNS =
+        "id, item_id, item_name, item_code, item_department, alert_type, message, current_inventory, pendingpo, " +
+        "used_inventory, safety_stock_threshold, resolved, `read`, ignored, created_at, resolved_at, read_at, " +
+        "ignored_at, archived_at";
+
+    private static final String HISTORY_COLUMNS =
+        "id, alert_id, item_id, from_type, to_type, current_inventory, changed_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AlertCounterService alertCounterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.alerts.archive.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${app.alerts.archive.batch-size:1000}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Scheduled(fixedDelayString = "${app.alerts.archive.interval-ms:3600000}", initialDelayString = "${app.alerts.archive.interval-ms:3600000}")
+    public void archiveExpired() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        try {
+            archiveBefore(LocalDateTime.now().minusDays(retentionDays));
+        } catch (Exception e) {
+            logger.error("Alert archiving failed", e);
+        }
+    }
+
+    /**
+     * Move every alert resolved before the cutoff to the archive
+     * @return number of alerts archived, or -1 if a run is already in progress
+     */
+    public long archiveBefore(LocalDateTime cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Alert archiving already running, skipping run for cutoff {}", cutoff);
+            return -1;
+        }
+        try {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            long startedAt = System.currentTimeMillis();
+            long archived = 0;
+            while (true) {
+                Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                archived += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+            }
+            if (archived > 0) {
+                logger.info("Archived {} alerts resolved before {} in {} ms",
+                    archived, cutoff, System.currentTimeMillis() - startedAt);
+            }
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        // Resolved alerts by resolve time (V22 index). Lock the batch so a concurrent change cannot
+        // alter an alert between the copy and the delete
+        List<Object[]> rows = jdbcTemplate.query(
+            "SELECT a.id, (SELECT i.department FROM items i WHERE i.id = a.item_id), a.resolved, a.ignored, a.`read` " +
+            "FROM alerts a WHERE a.resolved = TRUE AND a.resolved_at < ? ORDER BY a.id LIMIT ? FOR UPDATE",
+            (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getBoolean(3), rs.getBoolean(4), rs.getBoolean(5)},
+            Timestamp.valueOf(cutoff), batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> ids = new ArrayList<>(rows.size());
+        Map<String, long[]> counterDeltas = new HashMap<>();
+        long[] archivedCounts = new long[4];
+        for (Object[] row : rows) {
+            ids.add(row[0]);
+            AlertCounterService.accumulateChange(counterDeltas, (String) row[1],
+                AlertCounterService.countsOf((Boolean) row[2], (Boolean) row[3], (Boolean) row[4]), archivedCounts);
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+
+        List<Object> copyParams = new ArrayList<>(ids.size() + 1);
+        copyParams.add(Timestamp.valueOf(LocalDateTime.now()));
+        copyParams.addAll(ids);
+        jdbcTemplate.update(
+            "INSERT INTO alerts_archive (" + ARCHIVE_COLUMNS + ") " +
+            "SELECT a.id, a.item_id, i.name, i.code, i.department, a.alert_type, a.message, a.current_inventory, " +
+            "a.pendingpo, a.used_inventory, a.safety_stock_threshold, a.resolved, a.`read`, a.ignored, a.created_at, " +
+            "a.resolved_at, a.read_at, a.ignored_at, ? " +
+            "FROM alerts a JOIN items i ON i.id = a.item_id WHERE a.id IN (" + placeholders + ")",
+            copyParams.toArray());
+        // The history would go with the alert (ON DELETE CASCADE)
+        jdbcTemplate.update(
+            "INSERT INTO alert_severity_history_archive (" + HISTORY_COLUMNS + ") " +
+            "SELECT " + HISTORY_COLUMNS + " FROM alert_severity_history WHERE alert_id IN (" + placeholders + ")",
+            ids.toArray());
+        int deleted = jdbcTemplate.update("DELETE FROM alerts WHERE id IN (" + placeholders + ")", ids.toArray());
+        alertCounterService.recordChanges(counterDeltas);
+        return deleted;
+    }
+}
@@ -0,0 +1,175 @@
+package com.inventory.service;
+
+import com.inventory.entity.AlertSeverityTransition;
+import com.inventory.entity.User;
+import com.inventory.event.AlertChangedEvent;
+import com.inventory.event.AlertsBulkChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mark read / resolve many alerts at once: by explicit ids, or by filter (status and department).
+ *
+ * The target rows are locked with one SELECT ... FOR UPDATE and changed with one UPDATE, so a batch costs
+ * a fixed number of statements however many alerts it touches. Counters are updated with one write per
+ * department and live update subscribers get one AlertsBulkChangedEvent per batch.
+ * Only alerts the user may see are changed (same rule as the alert listings).
+ */
+@Service
+public class AlertBulkActionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertBulkActionService.class);
+
+    public static final String READ = "read";
+    public static final String RESOLVE = "resolve";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AlertCounterService alertCounterService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Most alerts changed by one request; filter requests report hasMore and are repeated by the client
+    @Value("${app.alerts.bulk.max-size:5000}")
+    private int maxSize;
+
+    /**
+     * Apply a bulk action for the user; there is no system default, a user is required
+     * @return {"updated": number of alerts changed, "hasMore": whether more alerts match the filter}
+     */
+    @Transactional
+    public Map<String, Object> apply(User user, String action, List<Long> ids, String status, String department) {
+        if (user == null) {
+            throw new IllegalArgumentException("A user is required for bulk alert actions");
+        }
+        boolean resolve = RESOLVE.equals(action);
+        if (!resolve && !READ.equals(action)) {
+            throw new IllegalArgumentException("Unknown bulk alert action: " + action);
+        }
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (byIds && ids.size() > maxSize) {
+            throw new IllegalArgumentException("At most " + maxSize + " alert ids per request");
+        }
+        if (!byIds && status == null) {
+            throw new IllegalArgumentException("Either ids or status is required");
+        }
+
+        // Only alerts the action still changes: unresolved for resolve, unread for read
+        StringBuilder where = new StringBuilder(resolve ? "a.resolved = FALSE" : "a.`read` = FALSE");
+        List<Object> params = new ArrayList<>();
+        where.append(" AND (? OR i.department IS NULL OR i.department = '' OR i.department = ?)");
+        params.add(user.getRole() == User.UserRole.OWNER);
+        params.add(user.getRole() == User.UserRole.ADMIN ? user.getDepartment() : null);
+        if (byIds) {
+            where.append(" AND a.id IN (").append(String.join(", ", Collections.nCopies(ids.size(), "?"))).append(")");
+            params.addAll(ids);
+        } else {
+            where.append(statusCondition(status));
+            if (department != null) {
+                if (department.trim().isEmpty()) {
+                    where.append(" AND (i.department IS NULL OR i.department = '')");
+                } else {
+                    where.append(" AND i.department = ?");
+                    params.add(department.trim());
+                }
+            }
+        }
+        params.add(maxSize + 1);
+
+        // Lock the batch so concurrent single-alert changes cannot skew the counter deltas
+        List<Object[]> rows = jdbcTemplate.query(
+            "SELECT a.id, i.department, a.resolved, a.ignored, a.`read` FROM alerts a JOIN items i ON i.id = a.item_id " +
+            "WHERE " + where + " ORDER BY a.id LIMIT ? FOR UPDATE",
+            (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getBoolean(3), rs.getBoolean(4), rs.getBoolean(5)},
+            params.toArray());
+        boolean hasMore = rows.size() > maxSize;
+        if (hasMore) {
+            rows = rows.subList(0, maxSize);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("updated", rows.size());
+        result.put("hasMore", hasMore);
+        if (rows.isEmpty()) {
+            return result;
+        }
+
+        List<Object> targetIds = new ArrayList<>(rows.size());
+        Map<String, long[]> counterDeltas = new HashMap<>();
+        Set<String> departments = new HashSet<>();
+        for (Object[] row : rows) {
+            targetIds.add(row[0]);
+            boolean resolved = (Boolean) row[2];
+            boolean ignored = (Boolean) row[3];
+            boolean read = (Boolean) row[4];
+            AlertCounterService.accumulateChange(counterDeltas, (String) row[1],
+                AlertCounterService.countsOf(resolved, ignored, read),
+                AlertCounterService.countsOf(resolve || resolved, ignored, !resolve || read));
+            departments.add(AlertCounterService.toCounterDepartment((String) row[1]));
+        }
+        String placeholders = String.join(", ", Collections.nCopies(targetIds.size(), "?"));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object> updateParams = new ArrayList<>(targetIds.size() + 1);
+        updateParams.add(now);
+        updateParams.addAll(targetIds);
+
+        int updated;
+        if (resolve) {
+            // Severity history gets a RESOLVED step for alerts that were still open, as resolveAlert does
+            jdbcTemplate.update(
+                "INSERT INTO alert_severity_history (alert_id, item_id, from_type, to_type, current_inventory, changed_at) " +
+                "SELECT id, item_id, alert_type, '" + AlertSeverityTransition.RESOLVED + "', current_inventory, ? " +
+                "FROM alerts WHERE resolved = FALSE AND ignored = FALSE AND id IN (" + placeholders + ")",
+                updateParams.toArray());
+            updated = jdbcTemplate.update(
+                "UPDATE alerts SET resolved = TRUE, resolved_at = ? WHERE id IN (" + placeholders + ")",
+                updateParams.toArray());
+        } else {
+            updated = jdbcTemplate.update(
+                "UPDATE alerts SET `read` = TRUE, read_at = ? WHERE id IN (" + placeholders + ")",
+                updateParams.toArray());
+        }
+        alertCounterService.recordChanges(counterDeltas);
+        eventPublisher.publishEvent(new AlertsBulkChangedEvent(
+            resolve ? AlertChangedEvent.Change.RESOLVED : AlertChangedEvent.Change.READ, departments, updated));
+
+        logger.info("Bulk {} of {} alerts by {}", action, updated, user.getUsername());
+        result.put("updated", updated);
+        return result;
+    }
+
+    private static String statusCondition(String status) {
+        switch (status.toLowerCase()) {
+            case "all":
+                return "";
+            case "active":
+                return " AND a.resolved = FALSE AND a.ignored = FALSE";
+            case "unread":
+                return " AND a.resolved = FALSE AND a.`read` = FALSE AND a.ignored = FALSE";
+            case "ignored":
+                return " AND a.ignored = TRUE";
+            default:
+                throw new IllegalArgumentException("Unknown alert status: " + status);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.inventory.service;
+
+import com.inventory.entity.Alert;
+import com.inventory.repository.AlertCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the alert_counters table behind the alert count endpoints.
+ *
+ * Every alert change adds its before/after difference to the department row in the same transaction, so a
+ * count is a primary key read instead of a COUNT over the alerts table. Item department moves and deletes
+ * are applied by the item endpoints; a periodic rebuild recounts everything to repair any drift.
+ */
+@Service
+public class AlertCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertCounterService.class);
+
+    // Indexes into the count arrays
+    public static final int ACTIVE = 0;
+    public static final int UNREAD = 1;
+    public static final int IGNORED = 2;
+    public static final int RESOLVED = 3;
+
+    @Autowired
+    private AlertCounterRepository alertCounterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Which counters an alert contributes to right now; capture this before changing the alert.
+     * A null alert (not created yet) contributes to none.
+     */
+    public static long[] countsOf(Alert alert) {
+        if (alert == null) {
+            return new long[4];
+        }
+        return countsOf(Boolean.TRUE.equals(alert.getResolved()), Boolean.TRUE.equals(alert.getIgnored()),
+            Boolean.TRUE.equals(alert.getRead()));
+    }
+
+    /**
+     * Which counters an alert in the given state contributes to, for alerts changed by bulk updates
+     */
+    public static long[] countsOf(boolean resolved, boolean ignored, boolean read) {
+        long[] counts = new long[4];
+        counts[ACTIVE] = !resolved && !ignored ? 1 : 0;
+        counts[UNREAD] = !resolved && !ignored && !read ? 1 : 0;
+        counts[IGNORED] = ignored ? 1 : 0;
+        counts[RESOLVED] = resolved ? 1 : 0;
+        return counts;
+    }
+
+    /**
+     * Apply an alert change to its department's counters.
+     * Must join the transaction that saved the alert so the counters can never drift from the alerts table.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Alert alert, long[] before) {
+        long[] after = countsOf(alert);
+        long[] delta = new long[4];
+        boolean changed = false;
+        for (int i = 0; i < delta.length; i++) {
+            delta[i] = after[i] - before[i];
+            changed |= delta[i] != 0;
+        }
+        if (changed) {
+            add(alert.getItem().getDepartment(), delta, 1);
+        }
+    }
+
+    /**
+     * Add an alert change to a per-department delta map, for applying many changes with recordChanges
+     */
+    public static void accumulateChange(Map<String, long[]> deltas, Alert alert, long[] before) {
+        accumulateChange(deltas, alert.getItem().getDepartment(), before, countsOf(alert));
+    }
+
+    public static void accumulateChange(Map<String, long[]> deltas, String department, long[] before, long[] after) {
+        long[] delta = deltas.computeIfAbsent(toCounterDepartment(department), k -> new long[4]);
+        for (int i = 0; i < delta.length; i++) {
+            delta[i] += after[i] - before[i];
+        }
+    }
+
+    /**
+     * Apply accumulated alert changes with one counter write per department.
+     * Same rule as recordChange: must join the transaction that saved the alerts.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(Map<String, long[]> deltas) {
+        for (Map.Entry<String, long[]> entry : deltas.entrySet()) {
+            add(entry.getKey(), entry.getValue(), 1);
+        }
+    }
+
+    /**
+     * Move an item's alerts to its new department so the counts follow the item
+     */
+    @Transactional
+    public void reassignItemDepartment(Long itemId, String previousDepartment, String department) {
+        String from = toCounterDepartment(previousDepartment);
+        String to = toCounterDepartment(department);
+        if (from.equals(to)) {
+            return;
+        }
+        long[] counts = countItemAlerts(itemId);
+        add(from, counts, -1);
+        add(to, counts, 1);
+    }
+
+    /**
+     * Take an item's alerts out of the counts; call before deleting the item (its alerts are deleted by cascade)
+     */
+    @Transactional
+    public void removeItemAlerts(Long itemId, String department) {
+        add(department, countItemAlerts(itemId), -1);
+    }
+
+    /**
+     * Alert counts visible to a user, {active, unread, ignored, resolved}.
+     * ownerView = true counts every department, otherwise public items plus the given department.
+     */
+    @Transactional(readOnly = true)
+    public long[] getVisibleCounts(boolean ownerView, String department) {
+        List<Object[]> rows = alertCounterRepository.sumVisibleCounts(ownerView, department);
+        long[] counts = new long[4];
+        if (!rows.isEmpty()) {
+            Object[] row = rows.get(0);
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = row[i] != null ? ((Number) row[i]).longValue() : 0;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Recount every department from the alerts table.
+     * Counter rows are locked first, so concurrent alert changes wait and apply their deltas on top of the
+     * recount; the recount itself runs after the locks and therefore sees every change committed before them.
+     */
+    @Scheduled(fixedDelayString = "${app.alerts.counters.rebuild-ms:3600000}", initialDelayString = "${app.alerts.counters.rebuild-ms:3600000}")
+    public void rebuild() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            Integer departments = new TransactionTemplate(transactionManager).execute(status -> {
+                alertCounterRepository.lockAll();
+                List<Object[]> exact = alertCounterRepository.countAlertsByDepartment();
+                alertCounterRepository.resetAll();
+                for (Object[] row : exact) {
+                    alertCounterRepository.addCounts((String) row[0], longValue(row[1]), longValue(row[2]),
+                        longValue(row[3]), longValue(row[4]));
+                }
+                return exact.size();
+            });
+            logger.info("Alert counters rebuilt for {} departments in {} ms", departments, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            logger.error("Alert counter rebuild failed", e);
+        }
+    }
+
+    private long[] countItemAlerts(Long itemId) {
+        List<Object[]> rows = alertCounterRepository.countItemAlerts(itemId);
+        long[] counts = new long[4];
+        if (!rows.isEmpty()) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = longValue(rows.get(0)[i]);
+            }
+        }
+        return counts;
+    }
+
+    private void add(String department, long[] counts, int sign) {
+        if (counts[ACTIVE] == 0 && counts[UNREAD] == 0 && counts[IGNORED] == 0 && counts[RESOLVED] == 0) {
+            return;
+        }
+        alertCounterRepository.addCounts(toCounterDepartment(department), sign * counts[ACTIVE], sign * counts[UNREAD],
+            sign * counts[IGNORED], sign * counts[RESOLVED]);
+    }
+
+    private static long longValue(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    /**
+     * Department key of an item's counters, as COALESCE(i.department, '') in the rebuild query; public items are ''
+     */
+    public static String toCounterDepartment(String department) {
+        return department != null ? department : "";
+    }
+}
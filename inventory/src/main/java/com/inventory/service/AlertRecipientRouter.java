@@ -0,0 +1,140 @@
+package com.inventory.service;
+
+import com.inventory.entity.Item;
+import com.inventory.entity.User;
+import com.inventory.event.UserChangedEvent;
+import com.inventory.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Who gets the email for an alert, as a precomputed routing table.
+ *
+ * Routing follows the alert visibility rules: OWNER users get every alert, ADMIN users get public items and
+ * their own department, USER accounts get public items only; only users with email alerts enabled count.
+ * The full recipient list of public items and of every department is built up front, so routing an alert is
+ * one map lookup. The table is rebuilt after a user change commits on this node, and when the users
+ * fingerprint shows a change made through another node.
+ */
+@Service
+public class AlertRecipientRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertRecipientRouter.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Recipient lists as of one load; never modified, replaced as a whole
+     */
+    private static final class RoutingTable {
+        final List<String> publicRecipients;
+        final List<String> ownerRecipients;
+        // department -> owners plus that department's admins
+        final Map<String, List<String>> departmentRecipients;
+        final List<Object> fingerprint;
+
+        RoutingTable(List<String> publicRecipients, List<String> ownerRecipients,
+                     Map<String, List<String>> departmentRecipients, List<Object> fingerprint) {
+            this.publicRecipients = publicRecipients;
+            this.ownerRecipients = ownerRecipients;
+            this.departmentRecipients = departmentRecipients;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private volatile RoutingTable table;
+
+    /**
+     * Alert email addresses for an item's alerts, without duplicates; empty if nobody should be notified
+     */
+    public List<String> getRecipients(Item item) {
+        RoutingTable current = table;
+        if (current == null) {
+            current = rebuild();
+        }
+        if (item.isPublic()) {
+            return current.publicRecipients;
+        }
+        return current.departmentRecipients.getOrDefault(item.getDepartment(), current.ownerRecipients);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        // Role, department, alert email or the email alerts switch may have changed
+        rebuild();
+    }
+
+    /**
+     * Pick up user changes made through another application node
+     */
+    @Scheduled(fixedDelayString = "${app.alerts.routing.check-ms:30000}", initialDelayString = "${app.alerts.routing.check-ms:30000}")
+    public void checkForUpdates() {
+        try {
+            RoutingTable current = table;
+            if (current != null && !current.fingerprint.equals(getChangeFingerprint())) {
+                rebuild();
+                logger.info("Users changed on another node, alert routing rebuilt");
+            }
+        } catch (Exception e) {
+            logger.warn("Alert routing change check failed", e);
+        }
+    }
+
+    private synchronized RoutingTable rebuild() {
+        // Read the fingerprint first: a change landing between the two reads is picked up by the next check
+        List<Object> fingerprint = getChangeFingerprint();
+
+        Set<String> owners = new LinkedHashSet<>();
+        Set<String> publicRecipients = new LinkedHashSet<>();
+        Map<String, Set<String>> departmentAdmins = new HashMap<>();
+        int skipped = 0;
+        for (User user : userRepository.findByEnableEmailAlertsTrue()) {
+            String alertEmail = user.getEffectiveAlertEmail();
+            if (alertEmail == null || alertEmail.trim().isEmpty()) {
+                skipped++;
+                continue;
+            }
+            String address = alertEmail.trim();
+            if (user.getRole() == User.UserRole.OWNER) {
+                owners.add(address);
+                publicRecipients.add(address);
+            } else if (user.getRole() == User.UserRole.ADMIN) {
+                publicRecipients.add(address);
+                if (user.getDepartment() != null) {
+                    departmentAdmins.computeIfAbsent(user.getDepartment(), k -> new LinkedHashSet<>()).add(address);
+                }
+            } else if (user.getRole() == User.UserRole.USER) {
+                publicRecipients.add(address);
+            }
+        }
+
+        Map<String, List<String>> departmentRecipients = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : departmentAdmins.entrySet()) {
+            Set<String> recipients = new LinkedHashSet<>(owners);
+            recipients.addAll(entry.getValue());
+            departmentRecipients.put(entry.getKey(), List.copyOf(recipients));
+        }
+
+        RoutingTable loaded = new RoutingTable(List.copyOf(publicRecipients), List.copyOf(owners),
+            Collections.unmodifiableMap(departmentRecipients), fingerprint);
+        table = loaded;
+        if (skipped > 0) {
+            logger.warn("{} users have email alerts enabled but no valid email address", skipped);
+        }
+        logger.info("Alert routing rebuilt: {} owner, {} public recipients, {} departments",
+            loaded.ownerRecipients.size(), loaded.publicRecipients.size(), departmentRecipients.size());
+        return loaded;
+    }
+
+    private List<Object> getChangeFingerprint() {
+        List<Object[]> rows = userRepository.getChangeFingerprint();
+        return rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0));
+    }
+}
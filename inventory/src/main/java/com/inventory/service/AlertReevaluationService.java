@@ -0,0 +1,266 @@
+package com.inventory.service;
+
+import com.inventory.entity.AlertSeverityTransition;
+import com.inventory.entity.User;
+import com.inventory.event.AlertChangedEvent;
+import com.inventory.repository.AlertRepository;
+import com.inventory.repository.AlertSeverityTransitionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-evaluates unresolved alerts in the background after a user changes their warning / critical thresholds.
+ *
+ * Only alerts the user can see whose band (normal, warning, critical) differs between the old and the new
+ * thresholds are touched. They are found in id order, a batch at a time, and each batch is selected with
+ * FOR UPDATE and moved with one UPDATE per target band in the same transaction, together with its counter,
+ * history and change events, so the counter deltas are built from the rows as they are changed.
+ * Jobs run one at a time in submission order, so consecutive changes by the same user apply in sequence.
+ */
+@Service
+public class AlertReevaluationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertReevaluationService.class);
+
+    // Band numbers as computed by AlertRepository.findThresholdBandChanges, and the alert type of each
+    private static final String[] BAND_TYPES = {"NORMAL_STOCK", "WARNING_STOCK", "CRITICAL_STOCK"};
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private AlertSeverityTransitionRepository alertSeverityTransitionRepository;
+
+    @Autowired
+    private AlertCounterService alertCounterService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.alerts.reevaluation.batch-size:500}")
+    private int batchSize;
+
+    // Latest job per user id, for progress reporting
+    private final Map<Long, Progress> progressByUser = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor executor;
+
+    /**
+     * State of one re-evaluation job; updated by the worker thread, read by status requests
+     */
+    private static final class Progress {
+        private final int oldWarningThreshold;
+        private final int oldCriticalThreshold;
+        private final int warningThreshold;
+        private final int criticalThreshold;
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private volatile String status = "QUEUED";
+        private volatile int batches;
+        private volatile int updated;
+        private volatile int movedToIgnored;
+        private volatile int movedToActive;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        Progress(int oldWarningThreshold, int oldCriticalThreshold, int warningThreshold, int criticalThreshold) {
+            this.oldWarningThreshold = oldWarningThreshold;
+            this.oldCriticalThreshold = oldCriticalThreshold;
+            this.warningThreshold = warningThreshold;
+            this.criticalThreshold = criticalThreshold;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("status", status);
+            map.put("oldWarningThreshold", oldWarningThreshold);
+            map.put("oldCriticalThreshold", oldCriticalThreshold);
+            map.put("warningThreshold", warningThreshold);
+            map.put("criticalThreshold", criticalThreshold);
+            map.put("batches", batches);
+            map.put("updated", updated);
+            map.put("movedToIgnored", movedToIgnored);
+            map.put("movedToActive", movedToActive);
+            map.put("queuedAt", queuedAt);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            return map;
+        }
+    }
+
+    @PostConstruct
+    void startWorker() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "alert-reevaluation-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopWorker() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a re-evaluation of the user's visible alerts from the old to the user's current thresholds.
+     * Starts once the current transaction commits (immediately if there is none), so the job never runs
+     * against settings that are rolled back.
+     */
+    public void submit(User user, int oldWarningThreshold, int oldCriticalThreshold) {
+        Long userId = user.getId();
+        User.UserRole role = user.getRole();
+        String department = user.getDepartment();
+        int warningThreshold = user.getWarningThreshold();
+        int criticalThreshold = user.getCriticalThreshold();
+        if (role == null || (oldWarningThreshold == warningThreshold && oldCriticalThreshold == criticalThreshold)) {
+            return;
+        }
+
+        Progress progress = new Progress(oldWarningThreshold, oldCriticalThreshold, warningThreshold, criticalThreshold);
+        progressByUser.put(userId, progress);
+        Runnable job = () -> run(user.getUsername(), role, department, progress);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(job);
+                }
+            });
+        } else {
+            executor.execute(job);
+        }
+    }
+
+    /**
+     * Progress of the user's latest re-evaluation, or null if there was none since startup
+     */
+    public Map<String, Object> getProgress(Long userId) {
+        Progress progress = progressByUser.get(userId);
+        return progress != null ? progress.toMap() : null;
+    }
+
+    private void run(String username, User.UserRole role, String department, Progress progress) {
+        progress.startedAt = LocalDateTime.now();
+        progress.status = "RUNNING";
+        long start = System.currentTimeMillis();
+        logger.info("Re-evaluating alerts for {} ({}, dept {}): warning {}% -> {}%, critical {}% -> {}%",
+            username, role, department, progress.oldWarningThreshold, progress.warningThreshold,
+            progress.oldCriticalThreshold, progress.criticalThreshold);
+        try {
+            // Same visibility as the alert listings; USER accounts only see public items
+            boolean ownerView = role == User.UserRole.OWNER;
+            String visibleDepartment = role == User.UserRole.ADMIN ? department : null;
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            for (int band = 0; band < BAND_TYPES.length; band++) {
+                int targetBand = band;
+                long afterId = 0;
+                while (true) {
+                    long from = afterId;
+                    BatchResult batch = transactionTemplate.execute(status -> {
+                        List<Object[]> rows = alertRepository.findThresholdBandChanges(ownerView, visibleDepartment,
+                            progress.oldWarningThreshold, progress.oldCriticalThreshold,
+                            progress.warningThreshold, progress.criticalThreshold,
+                            targetBand, from, PageRequest.of(0, batchSize));
+                        if (rows.isEmpty()) {
+                            return null;
+                        }
+                        int[] moved = applyBatch(rows, targetBand);
+                        return new BatchResult(rows.size(), moved[0], moved[1], (Long) rows.get(rows.size() - 1)[0]);
+                    });
+                    if (batch == null) {
+                        break;
+                    }
+                    progress.updated += batch.size();
+                    progress.movedToIgnored += batch.movedToIgnored();
+                    progress.movedToActive += batch.movedToActive();
+                    afterId = batch.lastId();
+                    progress.batches++;
+                    logger.info("Alert re-evaluation for {}: {} alerts updated after {} batches ({} moved to ignored, {} to active)",
+                        username, progress.updated, progress.batches, progress.movedToIgnored, progress.movedToActive);
+                    if (batch.size() < batchSize) {
+                        break;
+                    }
+                }
+            }
+            progress.status = "DONE";
+            logger.info("Alert re-evaluation for {} finished: {} alerts updated in {} ms",
+                username, progress.updated, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            progress.status = "FAILED";
+            logger.error("Alert re-evaluation for {} failed after {} alerts", username, progress.updated, e);
+        } finally {
+            progress.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private record BatchResult(int size, int movedToIgnored, int movedToActive, long lastId) {
+    }
+
+    /**
+     * Move one batch into the band and record the side effects of the change.
+     * Runs in the transaction that locked the rows.
+     * @return {moved to ignored, moved to active}
+     */
+    private int[] applyBatch(List<Object[]> rows, int band) {
+        String alertType = BAND_TYPES[band];
+        boolean ignored = band == 0;
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        alertRepository.applyThresholdBand(ids, alertType, alertType.replace("_", " ").toLowerCase(),
+            ignored, LocalDateTime.now());
+
+        Map<String, long[]> counterDeltas = new HashMap<>();
+        List<AlertSeverityTransition> transitions = new ArrayList<>();
+        int[] moved = new int[2];
+        for (Object[] row : rows) {
+            Long alertId = (Long) row[0];
+            Long itemId = (Long) row[1];
+            String department = (String) row[2];
+            String previousType = (String) row[3];
+            boolean wasIgnored = Boolean.TRUE.equals(row[4]);
+            boolean read = Boolean.TRUE.equals(row[5]);
+            Integer currentInventory = (Integer) row[6];
+
+            AlertCounterService.accumulateChange(counterDeltas, department,
+                AlertCounterService.countsOf(false, wasIgnored, read), AlertCounterService.countsOf(false, ignored, read));
+            if (!alertType.equals(previousType)) {
+                transitions.add(new AlertSeverityTransition(alertId, itemId, previousType, alertType, currentInventory));
+            }
+            if (wasIgnored != ignored) {
+                moved[ignored ? 0 : 1]++;
+            }
+            eventPublisher.publishEvent(new AlertChangedEvent(alertId, itemId, department,
+                AlertChangedEvent.Change.UPDATED, alertType, null));
+        }
+        alertSeverityTransitionRepository.saveAll(transitions);
+        alertCounterService.recordChanges(counterDeltas);
+        return moved;
+    }
+}
@@ -1,21 +1,47 @@
 package com.inventory.service;
 
+import com.inventory.dto.AlertResponse;
 import com.inventory.entity.Alert;
+import com.inventory.entity.AlertSeverityTransition;
 import com.inventory.entity.Item;
 import com.inventory.entity.User;
+import com.inventory.event.AlertChangedEvent;
 import com.inventory.repository.AlertRepository;
+import com.inventory.repository.AlertSeverityTransitionRepository;
+import com.inventory.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class AlertService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AlertService.class);
+
+    // Thresholds used when there is no user context, as percentages of safety stock
+    public static final int DEFAULT_WARNING_PERCENT = 100;
+    public static final int DEFAULT_CRITICAL_PERCENT = 50;
+
+    // Stock still above warning but projected to run out within the purchase order lead time
+    public static final String STOCKOUT_FORECAST = "STOCKOUT_FORECAST";
+
     @Autowired
     private AlertRepository alertRepository;
     
@@ -24,6 +50,24 @@ public class AlertService {
     
     @Autowired
     private UserService userService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AlertCounterService alertCounterService;
+
+    @Autowired
+    private AlertSeverityTransitionRepository alertSeverityTransitionRepository;
+
+    @Autowired
+    private AlertRecipientRouter alertRecipientRouter;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StockoutForecastService stockoutForecastService;
     
 
     
@@ -31,11 +75,13 @@ public class AlertService {
     private String fallbackNotificationEmail;
 
     // Method without user context - uses global settings
+    @Transactional
     public void checkAndCreateSafetyStockAlert(Item item) {
         checkAndCreateSafetyStockAlert(item, null);
     }
 
     // Method with user context for user-specific thresholds
+    @Transactional
     public void checkAndCreateSafetyStockAlert(Item item, User user) {
         // Use current inventory only (not effective inventory)
         int currentInventory = item.getCurrentInventory();
@@ -47,78 +93,306 @@ public class AlertService {
         System.out.println("Safety Threshold: " + safetyThreshold);
         
         // Use user-specific thresholds only (no global fallback)
-        double warningThresholdPercent;
-        double criticalThresholdPercent;
+        int warningThresholdPercent;
+        int criticalThresholdPercent;
         
         if (user != null) {
             // Use user-specific thresholds
-            warningThresholdPercent = user.getWarningThreshold() / 100.0;
-            criticalThresholdPercent = user.getCriticalThreshold() / 100.0;
+            warningThresholdPercent = user.getWarningThreshold();
+            criticalThresholdPercent = user.getCriticalThreshold();
             System.out.println("Using user-specific thresholds for: " + user.getUsername());
         } else {
             // No user context - use default thresholds
-            warningThresholdPercent = 100.0 / 100.0; // Default: 100%
-            criticalThresholdPercent = 50.0 / 100.0;  // Default: 50%
+            warningThresholdPercent = DEFAULT_WARNING_PERCENT;
+            criticalThresholdPercent = DEFAULT_CRITICAL_PERCENT;
             System.out.println("No user context - using default thresholds (Warning: 100%, Critical: 50%)");
         }
         
-        System.out.println("Warning Threshold %: " + (warningThresholdPercent * 100));
-        System.out.println("Critical Threshold %: " + (criticalThresholdPercent * 100));
+        System.out.println("Warning Threshold %: " + warningThresholdPercent);
+        System.out.println("Critical Threshold %: " + criticalThresholdPercent);
         
         // Calculate threshold values
-        int warningThreshold = (int) Math.round(safetyThreshold * warningThresholdPercent);
-        int criticalThreshold = (int) Math.round(safetyThreshold * criticalThresholdPercent);
+        int warningThreshold = thresholdUnits(safetyThreshold, warningThresholdPercent);
+        int criticalThreshold = thresholdUnits(safetyThreshold, criticalThresholdPercent);
         
         System.out.println("Warning Threshold Value: " + warningThreshold);
         System.out.println("Critical Threshold Value: " + criticalThreshold);
-        System.out.println("Should trigger alert? " + (currentInventory <= warningThreshold && safetyThreshold > 0));
         
-        // Check if alert should be triggered (current inventory below warning threshold)
-        if (currentInventory <= warningThreshold && safetyThreshold > 0) {
-            System.out.println("ALERT TRIGGER CONDITIONS MET - Creating alert...");
+        List<Alert> existingAlerts = alertRepository.findByItemAndResolvedFalse(item);
+        
+        // Alert when current inventory is at or below the warning threshold, or is forecast to run out
+        String alertType = determineRequiredAlertType(item, warningThreshold, criticalThreshold, existingAlerts);
+        System.out.println("Should trigger alert? " + (alertType != null) + (alertType != null ? " (" + alertType + ")" : ""));
+        
+        if (alertType != null) {
+            System.out.println("ALERT TRIGGER CONDITIONS MET - Creating or updating alert...");
             
-            // Check if there's an existing unresolved alert for this item
-            List<Alert> existingAlerts = alertRepository.findByItemAndResolvedFalse(item);
+            // One open alert per item: it is updated in place rather than superseded by a new row on every change
             System.out.println("Existing unresolved alerts: " + existingAlerts.size());
             
-            if (existingAlerts.isEmpty()) {
-                // Create new alert if none exists
-                System.out.println("Creating new alert (no existing alerts)...");
-                createNewAlert(item, currentInventory, safetyThreshold, warningThreshold, criticalThreshold);
-            } else {
-                // Always create new alert and mark existing ones as ignored
-                // This ensures we capture every inventory change while below safety threshold
-                System.out.println("Marking " + existingAlerts.size() + " existing alerts as ignored and creating new alert...");
-                for (Alert alert : existingAlerts) {
+            Alert openAlert = existingAlerts.stream()
+                    .filter(alert -> !alert.getIgnored())
+                    .max(Comparator.comparing(Alert::getCreatedAt).thenComparing(Alert::getId))
+                    .orElse(null);
+            
+            // Older open duplicates (from before alerts were updated in place) are superseded by the newest one
+            for (Alert alert : existingAlerts) {
+                if (alert != openAlert && !alert.getIgnored()) {
+                    long[] before = AlertCounterService.countsOf(alert);
                     alert.ignore();
                     alertRepository.save(alert);
+                    alertCounterService.recordChange(alert, before);
+                    publishChange(alert, AlertChangedEvent.Change.IGNORED);
                 }
-                createNewAlert(item, currentInventory, safetyThreshold, warningThreshold, criticalThreshold);
+            }
+            
+            if (openAlert == null) {
+                System.out.println("Creating new alert (no open alert)...");
+                createNewAlert(item, alertType, currentInventory, safetyThreshold, warningThreshold);
+            } else {
+                logger.debug("Updating open alert {} in place", openAlert.getId());
+                updateOpenAlert(openAlert, item, alertType, currentInventory, safetyThreshold, warningThreshold);
             }
         } else {
             System.out.println("Alert conditions NOT met - checking for alerts to resolve...");
             // Resolve existing alerts if inventory is back above threshold
-            List<Alert> existingAlerts = alertRepository.findByItemAndResolvedFalse(item);
             System.out.println("Resolving " + existingAlerts.size() + " existing alerts");
             for (Alert alert : existingAlerts) {
+                long[] before = AlertCounterService.countsOf(alert);
+                boolean wasOpen = !alert.getIgnored();
                 alert.resolve();
                 alertRepository.save(alert);
+                alertCounterService.recordChange(alert, before);
+                if (wasOpen) {
+                    recordTransition(alert, alert.getAlertType(), AlertSeverityTransition.RESOLVED, currentInventory);
+                }
+                publishChange(alert, AlertChangedEvent.Change.RESOLVED);
             }
         }
         System.out.println("========================");
     }
 
-    private void createNewAlert(Item item, int currentInventory, int safetyThreshold, int warningThreshold, int criticalThreshold) {
+    /**
+     * Bring the alerts of the given items in line with their current stock, using the default thresholds.
+     * Does what checkAndCreateSafetyStockAlert does for each item, with two reads for the whole batch and
+     * one counter write per department; new alerts, escalations and resolves are recorded and notified the
+     * same way. Unlike the per-item check, an item whose alert a user ignored is not alerted again.
+     * @return {opened, updated, resolved}
+     */
+    @Transactional
+    public int[] sweepItems(Collection<Long> itemIds) {
+        List<Item> items = itemRepository.findAllById(itemIds);
+        Map<Long, List<Alert>> unresolvedByItem = new HashMap<>();
+        for (Alert alert : alertRepository.findUnresolvedByItemIdIn(itemIds)) {
+            unresolvedByItem.computeIfAbsent(alert.getItem().getId(), k -> new ArrayList<>()).add(alert);
+        }
+        
+        List<Alert> opened = new ArrayList<>();
+        List<Alert> escalated = new ArrayList<>();
+        List<AlertSeverityTransition> transitions = new ArrayList<>();
+        Map<String, long[]> counterDeltas = new HashMap<>();
+        List<Alert> changedAlerts = new ArrayList<>();
+        List<AlertChangedEvent.Change> changes = new ArrayList<>();
+        int updated = 0;
+        int resolved = 0;
+        
+        for (Item item : items) {
+            int currentInventory = item.getCurrentInventory();
+            int safetyThreshold = item.getSafetyStockThreshold();
+            int warningThreshold = thresholdUnits(safetyThreshold, DEFAULT_WARNING_PERCENT);
+            int criticalThreshold = thresholdUnits(safetyThreshold, DEFAULT_CRITICAL_PERCENT);
+            List<Alert> unresolved = unresolvedByItem.getOrDefault(item.getId(), List.of());
+            // A band set by a user's threshold re-evaluation stands until the item's stock changes
+            if (unresolved.stream().anyMatch(alert -> alert.getUserThresholdBand() && hasStockFigures(alert, item))) {
+                continue;
+            }
+            String alertType = determineRequiredAlertType(item, warningThreshold, criticalThreshold, unresolved);
+            
+            if (alertType != null) {
+                Alert openAlert = unresolved.stream()
+                        .filter(alert -> !alert.getIgnored())
+                        .max(Comparator.comparing(Alert::getCreatedAt).thenComparing(Alert::getId))
+                        .orElse(null);
+                if (openAlert == null) {
+                    if (unresolved.isEmpty()) {
+                        Alert alert = new Alert();
+                        alert.setItem(item);
+                        alert.setAlertType(alertType);
+                        alert.setMessage(buildAlertMessage(alertType, item, currentInventory, safetyThreshold, warningThreshold));
+                        copyStockFigures(alert, item);
+                        opened.add(alert);
+                    }
+                    continue;
+                }
+                
+                for (Alert alert : unresolved) {
+                    if (alert != openAlert && !alert.getIgnored()) {
+                        long[] before = AlertCounterService.countsOf(alert);
+                        alert.ignore();
+                        AlertCounterService.accumulateChange(counterDeltas, alert, before);
+                        changedAlerts.add(alert);
+                        changes.add(AlertChangedEvent.Change.IGNORED);
+                    }
+                }
+                
+                String previousType = openAlert.getAlertType();
+                if (alertType.equals(previousType) && hasStockFigures(openAlert, item)) {
+                    continue;
+                }
+                long[] before = AlertCounterService.countsOf(openAlert);
+                openAlert.setAlertType(alertType);
+                openAlert.setMessage(buildAlertMessage(alertType, item, currentInventory, safetyThreshold, warningThreshold));
+                copyStockFigures(openAlert, item);
+                if (!alertType.equals(previousType)) {
+                    transitions.add(new AlertSeverityTransition(openAlert.getId(), item.getId(), previousType, alertType, currentInventory));
+                    if ("CRITICAL_STOCK".equals(alertType)) {
+                        openAlert.setRead(false);
+                        openAlert.setReadAt(null);
+                        escalated.add(openAlert);
+                    }
+                }
+                AlertCounterService.accumulateChange(counterDeltas, openAlert, before);
+                changedAlerts.add(openAlert);
+                changes.add(AlertChangedEvent.Change.UPDATED);
+                updated++;
+            } else {
+                for (Alert alert : unresolved) {
+                    long[] before = AlertCounterService.countsOf(alert);
+                    if (!alert.getIgnored()) {
+                        transitions.add(new AlertSeverityTransition(alert.getId(), item.getId(), alert.getAlertType(),
+                            AlertSeverityTransition.RESOLVED, currentInventory));
+                    }
+                    alert.resolve();
+                    AlertCounterService.accumulateChange(counterDeltas, alert, before);
+                    changedAlerts.add(alert);
+                    changes.add(AlertChangedEvent.Change.RESOLVED);
+                    resolved++;
+                }
+            }
+        }
+        
+        // Changed alerts are managed entities and are flushed as batched updates at commit
+        for (Alert alert : alertRepository.saveAll(opened)) {
+            AlertCounterService.accumulateChange(counterDeltas, alert, AlertCounterService.countsOf(null));
+            transitions.add(new AlertSeverityTransition(alert.getId(), alert.getItem().getId(), null,
+                alert.getAlertType(), alert.getCurrentInventory()));
+            changedAlerts.add(alert);
+            changes.add(AlertChangedEvent.Change.CREATED);
+        }
+        alertSeverityTransitionRepository.saveAll(transitions);
+        alertCounterService.recordChanges(counterDeltas);
+        for (int i = 0; i < changedAlerts.size(); i++) {
+            publishChange(changedAlerts.get(i), changes.get(i));
+        }
+        for (Alert alert : opened) {
+            sendNotificationToUsers(alert);
+        }
+        for (Alert alert : escalated) {
+            sendNotificationToUsers(alert);
+        }
+        return new int[]{opened.size(), updated, resolved};
+    }
+
+    private void createNewAlert(Item item, String alertType, int currentInventory, int safetyThreshold, int warningThreshold) {
         Alert alert = new Alert();
         alert.setItem(item);
-        
-        // Determine alert type based on severity using configurable thresholds
-        String alertType = determineAlertType(currentInventory, warningThreshold, criticalThreshold);
         alert.setAlertType(alertType);
         
         // Create more accurate message
+        alert.setMessage(buildAlertMessage(alertType, item, currentInventory, safetyThreshold, warningThreshold));
+        copyStockFigures(alert, item);
+        
+        Alert savedAlert = alertRepository.save(alert);
+        alertCounterService.recordChange(savedAlert, AlertCounterService.countsOf(null));
+        recordTransition(savedAlert, null, alertType, currentInventory);
+        publishChange(savedAlert, AlertChangedEvent.Change.CREATED);
+        
+        // Send email notification to all users who want alerts
+        sendNotificationToUsers(savedAlert);
+    }
+
+    /**
+     * Refresh the item's open alert with the latest stock figures.
+     * A severity change is recorded in the history; escalating to critical marks the alert unread again
+     * and notifies users. Plain stock changes only update the row.
+     */
+    private void updateOpenAlert(Alert alert, Item item, String alertType, int currentInventory, int safetyThreshold, int warningThreshold) {
+        String previousType = alert.getAlertType();
+        boolean severityChanged = !alertType.equals(previousType);
+        boolean escalated = severityChanged && "CRITICAL_STOCK".equals(alertType);
+        
+        if (!severityChanged && hasStockFigures(alert, item)) {
+            logger.debug("Open alert {} already up to date", alert.getId());
+            return;
+        }
+        
+        long[] before = AlertCounterService.countsOf(alert);
+        alert.setAlertType(alertType);
+        alert.setMessage(buildAlertMessage(alertType, item, currentInventory, safetyThreshold, warningThreshold));
+        copyStockFigures(alert, item);
+        if (escalated) {
+            alert.setRead(false);
+            alert.setReadAt(null);
+        }
+        
+        alertRepository.save(alert);
+        alertCounterService.recordChange(alert, before);
+        if (severityChanged) {
+            logger.debug("Alert {} severity changed from {} to {}", alert.getId(), previousType, alertType);
+            recordTransition(alert, previousType, alertType, currentInventory);
+        }
+        publishChange(alert, AlertChangedEvent.Change.UPDATED);
+        
+        if (escalated) {
+            sendNotificationToUsers(alert);
+        }
+    }
+
+    /**
+     * A threshold in stock units: percent of the safety stock, half rounded up.
+     * The product is taken in integers so .5 cases are exact and the result matches
+     * ROUND(safetyStockThreshold * percent / 100.0, 0) in the banding queries of AlertRepository and ItemRepository;
+     * multiplying by percent / 100.0 instead rounds some of them down (e.g. 29% of 50 gives 14, not 15).
+     */
+    static int thresholdUnits(int safetyThreshold, int percent) {
+        return (int) Math.round(safetyThreshold * percent / 100.0);
+    }
+
+    /**
+     * Record the stock the alert was evaluated against; the alert is now banded by the default thresholds
+     */
+    private static void copyStockFigures(Alert alert, Item item) {
+        alert.setCurrentInventory(item.getCurrentInventory());
+        alert.setPendingPO(item.getPendingPO());
+        alert.setUsedInventory(item.getUsedInventory());
+        alert.setSafetyStockThreshold(item.getSafetyStockThreshold());
+        alert.setUserThresholdBand(false);
+    }
+
+    private static boolean hasStockFigures(Alert alert, Item item) {
+        return Objects.equals(alert.getCurrentInventory(), item.getCurrentInventory())
+            && Objects.equals(alert.getPendingPO(), item.getPendingPO())
+            && Objects.equals(alert.getUsedInventory(), item.getUsedInventory())
+            && Objects.equals(alert.getSafetyStockThreshold(), item.getSafetyStockThreshold());
+    }
+
+    private String buildAlertMessage(String alertType, Item item, int currentInventory, int safetyThreshold, int warningThreshold) {
+        if (STOCKOUT_FORECAST.equals(alertType)) {
+            LocalDateTime now = LocalDateTime.now();
+            Double daysToStockout = stockoutForecastService.getDaysToStockout(item, now);
+            return String.format(
+                "stockout forecast alert: %s (%s) is projected to run out in %.1f days at %.1f units/day (%d on hand, %d on order), within the purchase order lead time of %.1f days.",
+                item.getName(),
+                item.getCode(),
+                daysToStockout != null ? daysToStockout : 0.0,
+                stockoutForecastService.getUsageRatePerDay(item, now),
+                currentInventory,
+                item.getPendingPO(),
+                stockoutForecastService.getLeadTimeDays(item)
+            );
+        }
         double currentPercent = safetyThreshold > 0 ? (double) currentInventory / safetyThreshold * 100 : 0;
-        alert.setMessage(String.format(
+        return String.format(
             "%s alert: %s (%s) has current inventory of %d units (%.1f%% of safety stock), below warning threshold of %d units.",
             alertType.replace("_", " ").toLowerCase(), 
             item.getName(), 
@@ -126,17 +400,44 @@ public class AlertService {
             currentInventory,
             currentPercent,
             warningThreshold
-        ));
-        
-        alert.setCurrentInventory(item.getCurrentInventory());
-        alert.setPendingPO(item.getPendingPO());
-        alert.setUsedInventory(item.getUsedInventory());
-        alert.setSafetyStockThreshold(item.getSafetyStockThreshold());
-        
-        Alert savedAlert = alertRepository.save(alert);
-        
-        // Send email notification to all users who want alerts
-        sendNotificationToUsers(savedAlert);
+        );
+    }
+
+    private void recordTransition(Alert alert, String fromType, String toType, int currentInventory) {
+        alertSeverityTransitionRepository.save(
+            new AlertSeverityTransition(alert.getId(), alert.getItem().getId(), fromType, toType, currentInventory));
+    }
+
+    /**
+     * Severity history of an alert, oldest first; empty if the alert does not exist or the user may not see it
+     */
+    public List<AlertSeverityTransition> getSeverityHistory(User user, Long alertId) {
+        Optional<Alert> alert = alertRepository.findById(alertId);
+        if (alert.isEmpty()) {
+            return List.of();
+        }
+        Item item = alert.get().getItem();
+        String department = getVisibleDepartment(user);
+        if (!isOwnerView(user) && !item.isPublic() && !item.getDepartment().equals(department)) {
+            return List.of();
+        }
+        return alertSeverityTransitionRepository.findByAlertIdOrderByChangedAtAscIdAsc(alertId);
+    }
+
+    /**
+     * Alert type the item's stock calls for, or null if it needs no alert. Threshold alerts take precedence;
+     * above the warning threshold the item can still be forecast to run out before a new order would arrive.
+     * An unresolved forecast alert (open or ignored) is kept until the forecast clears the resolve margin.
+     */
+    private String determineRequiredAlertType(Item item, int warningThreshold, int criticalThreshold, List<Alert> unresolved) {
+        if (item.getCurrentInventory() <= warningThreshold && item.getSafetyStockThreshold() > 0) {
+            return determineAlertType(item.getCurrentInventory(), warningThreshold, criticalThreshold);
+        }
+        boolean forecastOpen = unresolved.stream().anyMatch(alert -> STOCKOUT_FORECAST.equals(alert.getAlertType()));
+        if (stockoutForecastService.isStockoutForecast(item, LocalDateTime.now(), forecastOpen)) {
+            return STOCKOUT_FORECAST;
+        }
+        return null;
     }
 
     private String determineAlertType(int currentInventory, int warningThreshold, int criticalThreshold) {
@@ -208,78 +509,169 @@ public class AlertService {
         return alertRepository.findResolvedAlertsOrderByResolvedAtDesc();
     }
 
+    // Counts are read from the materialized alert_counters table
+
     public long getActiveAlertCount() {
-        return alertRepository.countByResolvedFalseAndIgnoredFalse();
+        return alertCounterService.getVisibleCounts(true, null)[AlertCounterService.ACTIVE];
     }
 
     public long getUnreadAlertCount() {
-        return alertRepository.countByResolvedFalseAndReadFalseAndIgnoredFalse();
+        return alertCounterService.getVisibleCounts(true, null)[AlertCounterService.UNREAD];
     }
 
     public List<Alert> getUnreadAlerts() {
         return alertRepository.findActiveUnreadAlertsOrderByCreatedAtDesc();
     }
 
+    // Department-aware listings - visibility is evaluated by the database
+
+    public Page<Alert> getAllAlerts(User user, Pageable pageable) {
+        return alertRepository.findVisibleAlerts(isOwnerView(user), getVisibleDepartment(user), pageable);
+    }
+
+    public Page<Alert> getActiveAlerts(User user, Pageable pageable) {
+        return alertRepository.findVisibleActiveAlerts(isOwnerView(user), getVisibleDepartment(user), pageable);
+    }
+
+    public Page<Alert> getUnreadAlerts(User user, Pageable pageable) {
+        return alertRepository.findVisibleUnreadAlerts(isOwnerView(user), getVisibleDepartment(user), pageable);
+    }
+
+    public Page<Alert> getIgnoredAlerts(User user, Pageable pageable) {
+        return alertRepository.findVisibleIgnoredAlerts(isOwnerView(user), getVisibleDepartment(user), pageable);
+    }
+
+    public Page<Alert> getResolvedAlerts(User user, Pageable pageable) {
+        return alertRepository.findVisibleResolvedAlerts(isOwnerView(user), getVisibleDepartment(user), pageable);
+    }
+
+    /**
+     * Keyset pagination over a department-aware listing, as lean rows.
+     * status: all, active, unread, ignored or resolved; the cursor is the (createdAt | ignoredAt | resolvedAt, id)
+     * of the last row of the previous page, null for the first page. Pageable.unpaged() returns the whole listing.
+     */
+    public List<AlertResponse> getAlertRows(User user, String status, LocalDateTime cursorAt, Long cursorId, Pageable pageable) {
+        boolean ownerView = isOwnerView(user);
+        String department = getVisibleDepartment(user);
+        boolean firstPage = cursorAt == null || cursorId == null;
+        switch (status.toLowerCase()) {
+            case "all":
+                return firstPage
+                        ? alertRepository.findFirstVisibleAlertRows(ownerView, department, pageable)
+                        : alertRepository.findVisibleAlertRowsAfter(ownerView, department, cursorAt, cursorId, pageable);
+            case "active":
+                return firstPage
+                        ? alertRepository.findFirstVisibleActiveAlertRows(ownerView, department, pageable)
+                        : alertRepository.findVisibleActiveAlertRowsAfter(ownerView, department, cursorAt, cursorId, pageable);
+            case "unread":
+                return firstPage
+                        ? alertRepository.findFirstVisibleUnreadAlertRows(ownerView, department, pageable)
+                        : alertRepository.findVisibleUnreadAlertRowsAfter(ownerView, department, cursorAt, cursorId, pageable);
+            case "ignored":
+                return firstPage
+                        ? alertRepository.findFirstVisibleIgnoredAlertRows(ownerView, department, pageable)
+                        : alertRepository.findVisibleIgnoredAlertRowsAfter(ownerView, department, cursorAt, cursorId, pageable);
+            case "resolved":
+                return firstPage
+                        ? alertRepository.findFirstVisibleResolvedAlertRows(ownerView, department, pageable)
+                        : alertRepository.findVisibleResolvedAlertRowsAfter(ownerView, department, cursorAt, cursorId, pageable);
+            default:
+                throw new IllegalArgumentException("Unknown alert status: " + status);
+        }
+    }
+
+    public long getActiveAlertCount(User user) {
+        return alertCounterService.getVisibleCounts(isOwnerView(user), getVisibleDepartment(user))[AlertCounterService.ACTIVE];
+    }
+
+    public long getUnreadAlertCount(User user) {
+        return alertCounterService.getVisibleCounts(isOwnerView(user), getVisibleDepartment(user))[AlertCounterService.UNREAD];
+    }
+
+    /**
+     * Active and unread counts visible to the user in one counter read, {active, unread, ignored, resolved}
+     */
+    public long[] getAlertCounts(User user) {
+        return alertCounterService.getVisibleCounts(isOwnerView(user), getVisibleDepartment(user));
+    }
+
+    /**
+     * OWNER users see every alert; calls without a user context only see public items
+     */
+    private boolean isOwnerView(User user) {
+        return user != null && user.getRole() == User.UserRole.OWNER;
+    }
+
+    /**
+     * Department whose alerts the user may see in addition to public items.
+     * ADMIN users see their own department; USER role only sees public items (null).
+     */
+    private String getVisibleDepartment(User user) {
+        if (user != null && user.getRole() == User.UserRole.ADMIN) {
+            return user.getDepartment();
+        }
+        return null;
+    }
+
+    @Transactional
     public void markAlertAsRead(Long alertId) {
         Optional<Alert> alertOpt = alertRepository.findById(alertId);
         if (alertOpt.isPresent()) {
             Alert alert = alertOpt.get();
             if (!alert.getRead()) {
+                long[] before = AlertCounterService.countsOf(alert);
                 alert.markAsRead();
                 alertRepository.save(alert);
+                alertCounterService.recordChange(alert, before);
+                publishChange(alert, AlertChangedEvent.Change.READ);
             }
         }
     }
 
+    @Transactional
     public void resolveAlert(Long alertId) {
         Optional<Alert> alertOpt = alertRepository.findById(alertId);
         if (alertOpt.isPresent()) {
             Alert alert = alertOpt.get();
+            long[] before = AlertCounterService.countsOf(alert);
+            boolean wasOpen = !alert.getResolved() && !alert.getIgnored();
             alert.resolve();
             alertRepository.save(alert);
+            alertCounterService.recordChange(alert, before);
+            if (wasOpen) {
+                recordTransition(alert, alert.getAlertType(), AlertSeverityTransition.RESOLVED, alert.getCurrentInventory());
+            }
+            publishChange(alert, AlertChangedEvent.Change.RESOLVED);
         }
     }
 
+    private void publishChange(Alert alert, AlertChangedEvent.Change change) {
+        Item item = alert.getItem();
+        eventPublisher.publishEvent(new AlertChangedEvent(alert.getId(), item.getId(), item.getDepartment(),
+            change, alert.getAlertType(), alert.getMessage()));
+    }
+
+    /**
+     * Queue the alert email for every user allowed to see the item; the outbox sender combines each
+     * recipient's queued alerts into digests
+     */
     private void sendNotificationToUsers(Alert alert) {
         try {
-            System.out.println("=== EMAIL NOTIFICATION DEBUG ===");
-            
             Item alertItem = alert.getItem();
-            System.out.println("Alert for item: " + alertItem.getName() + " (Department: " + alertItem.getDisplayDepartment() + ")");
-            
-            // Get all users who have email alerts enabled
-            List<User> allUsers = userService.findUsersWithEmailAlertsEnabled();
-            System.out.println("Found " + allUsers.size() + " users with email alerts enabled");
-            
-            // Filter users based on department access
-            List<User> eligibleUsers = allUsers.stream()
-                    .filter(user -> shouldUserReceiveAlert(user, alertItem))
-                    .collect(java.util.stream.Collectors.toList());
             
-            System.out.println("After department filtering: " + eligibleUsers.size() + " eligible users");
+            // Recipients come from the precomputed routing table (department access, email alerts enabled)
+            List<String> recipients = alertRecipientRouter.getRecipients(alertItem);
             
-            if (eligibleUsers.isEmpty()) {
+            if (recipients.isEmpty()) {
                 // Fallback to global notification email if no eligible users
-                System.out.println("No eligible users for this alert, sending to fallback email: " + fallbackNotificationEmail);
+                System.out.println("No eligible users for alert on " + alertItem.getName() + " (" + alertItem.getDisplayDepartment() + "), sending to fallback email: " + fallbackNotificationEmail);
                 emailService.sendAlertNotification(alert, fallbackNotificationEmail);
-                System.out.println("ALERT EMAIL SENT (fallback): " + alert.getMessage());
             } else {
-                // Send alert to each eligible user
-                for (User user : eligibleUsers) {
-                    String alertEmail = user.getEffectiveAlertEmail();
-                    
-                    // Validate email address before sending
-                    if (alertEmail == null || alertEmail.trim().isEmpty()) {
-                        System.err.println("Warning: User " + user.getUsername() + " has email alerts enabled but no valid email address");
-                        continue;
-                    }
-                    
-                    System.out.println("Sending alert to user: " + user.getUsername() + " (" + user.getRole() + ", Dept: " + user.getDepartment() + ") -> " + alertEmail);
-                    emailService.sendAlertNotification(alert, alertEmail);
-                    System.out.println("ALERT EMAIL SENT to " + alertEmail + ": " + alert.getMessage());
+                for (String recipient : recipients) {
+                    emailService.sendAlertNotification(alert, recipient);
                 }
+                logger.debug("Alert email queued for {} recipients ({}): {}", recipients.size(), alertItem.getDisplayDepartment(), alert.getMessage());
             }
-            System.out.println("================================");
         } catch (Exception e) {
             System.err.println("Failed to send alert notification: " + e.getMessage());
             e.printStackTrace();
@@ -287,51 +679,6 @@ public class AlertService {
         }
     }
 
-    /**
-     * Determine if a user should receive an alert for a specific item based on department access
-     */
-    private boolean shouldUserReceiveAlert(User user, Item item) {
-        System.out.println("Checking alert eligibility for user: " + user.getUsername() + " (Role: " + user.getRole() + ", Dept: " + user.getDepartment() + ")");
-        
-        // OWNER users receive ALL alerts
-        if (user.getRole() == User.UserRole.OWNER) {
-            System.out.println("  -> OWNER: Receives all alerts");
-            return true;
-        }
-        
-        // ADMIN users receive alerts for their department + public items
-        if (user.getRole() == User.UserRole.ADMIN) {
-            // Public items (no department) - all admins can receive alerts
-            if (item.isPublic()) {
-                System.out.println("  -> ADMIN: Public item - alert allowed");
-                return true;
-            }
-            
-            // Department-specific items - only admins from the same department
-            if (item.getDepartment() != null && item.getDepartment().equals(user.getDepartment())) {
-                System.out.println("  -> ADMIN: Item department matches user department - alert allowed");
-                return true;
-            }
-            
-            System.out.println("  -> ADMIN: Item department (" + item.getDepartment() + ") doesn't match user department (" + user.getDepartment() + ") - alert blocked");
-            return false;
-        }
-        
-        // USER role typically shouldn't receive alerts (they can't manage inventory)
-        // But if they have alerts enabled, only send for public items
-        if (user.getRole() == User.UserRole.USER) {
-            if (item.isPublic()) {
-                System.out.println("  -> USER: Public item - alert allowed");
-                return true;
-            }
-            System.out.println("  -> USER: Department-specific item - alert blocked");
-            return false;
-        }
-        
-        System.out.println("  -> Unknown role - alert blocked");
-        return false;
-    }
-    
     /**
      * Send daily summary of active alerts to all users who want daily digest
      * Note: For daily summaries, we send the total count but users will only see alerts 
@@ -370,127 +717,4 @@ public class AlertService {
             System.err.println("Failed to send daily summary: " + e.getMessage());
         }
     }
-
-    /**
-     * Re-evaluate all unresolved alerts when user thresholds are updated.
-     * This method updates alert types and moves alerts between active/ignored categories
-     * based on the new threshold values.
-     */
-    public void reevaluateAlertsForUserThresholds(User user) {
-        try {
-            System.out.println("=== RE-EVALUATING ALERTS FOR USER THRESHOLD CHANGE ===");
-            System.out.println("User: " + user.getUsername() + " (Role: " + user.getRole() + ", Dept: " + user.getDepartment() + ")");
-            System.out.println("New thresholds - Warning: " + user.getWarningThreshold() + "%, Critical: " + user.getCriticalThreshold() + "%");
-            
-            // Get all unresolved alerts (both active and ignored, but not resolved)
-            List<Alert> unresolvedAlerts = alertRepository.findByResolvedFalseOrderByCreatedAtDesc();
-            System.out.println("Found " + unresolvedAlerts.size() + " total unresolved alerts to evaluate");
-            
-            // Filter alerts to only those that this user should see based on department access
-            List<Alert> userAccessibleAlerts = unresolvedAlerts.stream()
-                    .filter(alert -> shouldUserReceiveAlert(user, alert.getItem()))
-                    .collect(java.util.stream.Collectors.toList());
-            
-            System.out.println("User has access to " + userAccessibleAlerts.size() + " of these alerts");
-            
-            int updatedCount = 0;
-            int movedToIgnored = 0;
-            int movedToActive = 0;
-            
-            for (Alert alert : userAccessibleAlerts) {
-                Item item = alert.getItem();
-                int currentInventory = alert.getCurrentInventory();
-                int safetyThreshold = alert.getSafetyStockThreshold();
-                
-                System.out.println("\nEvaluating alert for item: " + item.getName() + " (" + item.getCode() + ")");
-                System.out.println("Current inventory: " + currentInventory + ", Safety threshold: " + safetyThreshold);
-                
-                // Calculate new threshold values based on user's updated thresholds
-                double warningThresholdPercent = user.getWarningThreshold() / 100.0;
-                double criticalThresholdPercent = user.getCriticalThreshold() / 100.0;
-                
-                int warningThreshold = (int) Math.round(safetyThreshold * warningThresholdPercent);
-                int criticalThreshold = (int) Math.round(safetyThreshold * criticalThresholdPercent);
-                
-                System.out.println("New thresholds - Warning: " + warningThreshold + ", Critical: " + criticalThreshold);
-                
-                String oldAlertType = alert.getAlertType();
-                boolean wasIgnored = alert.getIgnored();
-                
-                // Determine new alert type based on current inventory and new thresholds
-                String newAlertType;
-                boolean shouldBeIgnored;
-                
-                if (currentInventory <= warningThreshold && safetyThreshold > 0) {
-                    // Should be an active alert
-                    newAlertType = determineAlertType(currentInventory, warningThreshold, criticalThreshold);
-                    shouldBeIgnored = false;
-                } else {
-                    // Inventory is above warning threshold - should be ignored
-                    newAlertType = "NORMAL_STOCK";
-                    shouldBeIgnored = true;
-                }
-                
-                System.out.println("Old alert type: " + oldAlertType + ", New alert type: " + newAlertType);
-                System.out.println("Was ignored: " + wasIgnored + ", Should be ignored: " + shouldBeIgnored);
-                
-                boolean alertUpdated = false;
-                
-                // Update alert type if it changed
-                if (!oldAlertType.equals(newAlertType)) {
-                    alert.setAlertType(newAlertType);
-                    
-                    // Update the message to reflect new severity
-                    double currentPercent = safetyThreshold > 0 ? (double) currentInventory / safetyThreshold * 100 : 0;
-                    alert.setMessage(String.format(
-                        "%s alert: %s (%s) has current inventory of %d units (%.1f%% of safety stock), evaluated with updated thresholds.",
-                        newAlertType.replace("_", " ").toLowerCase(), 
-                        item.getName(), 
-                        item.getCode(), 
-                        currentInventory,
-                        currentPercent
-                    ));
-                    
-                    alertUpdated = true;
-                    System.out.println("Alert type updated from " + oldAlertType + " to " + newAlertType);
-                }
-                
-                // Update ignored status if it should change
-                if (wasIgnored != shouldBeIgnored) {
-                    if (shouldBeIgnored) {
-                        // Move to ignored
-                        alert.ignore();
-                        movedToIgnored++;
-                        System.out.println("Alert moved to ignored (inventory above warning threshold)");
-                    } else {
-                        // Move back to active (unignore)
-                        alert.setIgnored(false);
-                        alert.setIgnoredAt(null);
-                        movedToActive++;
-                        System.out.println("Alert moved back to active (inventory below warning threshold)");
-                    }
-                    alertUpdated = true;
-                }
-                
-                // Save the alert if any changes were made
-                if (alertUpdated) {
-                    alertRepository.save(alert);
-                    updatedCount++;
-                    System.out.println("Alert updated and saved");
-                } else {
-                    System.out.println("No changes needed for this alert");
-                }
-            }
-            
-            System.out.println("\n=== RE-EVALUATION SUMMARY ===");
-            System.out.println("Total alerts updated: " + updatedCount);
-            System.out.println("Moved to ignored: " + movedToIgnored);
-            System.out.println("Moved to active: " + movedToActive);
-            System.out.println("========================================");
-            
-        } catch (Exception e) {
-            System.err.println("Error during alert re-evaluation: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
 } 
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.inventory.service;
+
+import com.inventory.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Periodic pass that brings every item's alerts in line with its stock.
+ *
+ * Alerts are normally kept current by the per-item check on each inventory change; the sweep catches what
+ * that misses (bulk imports, direct database edits, threshold changes). One query finds the items whose
+ * alert state is out of line, and only those are loaded, in chunks of one transaction each.
+ *
+ * The sweep applies the default thresholds. Alerts last banded by a user's threshold re-evaluation
+ * (AlertReevaluationService) are skipped until the item's stock changes, when the default thresholds
+ * take over again, as they do for the per-item check.
+ */
+@Service
+public class AlertSweeperService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertSweeperService.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Value("${app.alerts.sweeper.batch-size:200}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.alerts.sweeper.interval-ms:300000}", initialDelayString = "${app.alerts.sweeper.initial-delay-ms:60000}")
+    public void sweep() {
+        long start = System.nanoTime();
+        long itemCount;
+        List<Long> candidates;
+        try {
+            itemCount = itemRepository.count();
+            candidates = itemRepository.findItemIdsWithStaleAlerts(AlertService.DEFAULT_WARNING_PERCENT);
+        } catch (Exception e) {
+            logger.warn("Alert sweep failed to find stale items", e);
+            return;
+        }
+
+        int opened = 0;
+        int updated = 0;
+        int resolved = 0;
+        int failedChunks = 0;
+        for (int from = 0; from < candidates.size(); from += batchSize) {
+            List<Long> chunk = candidates.subList(from, Math.min(from + batchSize, candidates.size()));
+            try {
+                int[] result = alertService.sweepItems(chunk);
+                opened += result[0];
+                updated += result[1];
+                resolved += result[2];
+            } catch (Exception e) {
+                // Leave the chunk for the next sweep rather than stopping the whole pass
+                failedChunks++;
+                logger.warn("Alert sweep failed for {} items starting at id {}", chunk.size(), chunk.get(0), e);
+            }
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Alert sweep: {} items evaluated ({} items/sec), {} out of line, {} opened, {} updated, {} resolved, {} failed chunks, {} ms",
+            itemCount, itemCount * 1000 / elapsedMs, candidates.size(), opened, updated, resolved, failedChunks, elapsedMs);
+    }
+}
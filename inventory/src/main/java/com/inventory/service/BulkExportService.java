@@ -0,0 +1,298 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.opencsv.CSVWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Raw bulk exports for BI pipelines.
+ * Rows are read in keyset-paged chunks of app.exports.chunk-size and written to a gzip stream -
+ * no entities are hydrated and at most one chunk is held in memory. Each chunk is one statement bounded
+ * by app.exports.query-timeout-seconds, and the connection is returned to the pool before the chunk is
+ * written, so a slow client never holds a connection or a transaction open.
+ */
+@Service
+public class BulkExportService {
+
+    private static final String[] USAGE_CSV_HEADERS = {
+        "id", "user_name", "department", "d_number", "item_id", "item_name", "item_code",
+        "item_department", "barcode", "quantity_used", "notes", "used_at", "location"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Upper bound for reading one chunk; same setting as the Excel export
+    @Value("${app.exports.query-timeout-seconds:300}")
+    private int exportQueryTimeoutSeconds;
+
+    @Value("${app.exports.chunk-size:5000}")
+    private int chunkSize;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Write usage rows as gzip-compressed CSV.
+     * Takes the same filters as the filtered Excel export; null / empty filters are not applied.
+     * @return number of rows written
+     */
+    public long writeUsageCsv(LocalDateTime startDate, LocalDateTime endDate, String userName,
+                              String department, String barcodeOrItemCode, OutputStream outputStream) throws IOException {
+        StringBuilder sql = new StringBuilder(
+            "SELECT u.id, u.user_name, u.department, u.d_number, i.id, i.name, i.code, i.department, " +
+            "u.barcode, u.quantity_used, u.notes, u.used_at, i.location " +
+            "FROM item_usage u JOIN items i ON i.id = u.item_id WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+
+        if (startDate != null) {
+            sql.append(" AND u.used_at >= ?");
+            params.add(Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND u.used_at <= ?");
+            params.add(Timestamp.valueOf(endDate));
+        }
+        if (hasText(department)) {
+            sql.append(" AND i.department = ?");
+            params.add(department.trim());
+        }
+        if (hasText(userName)) {
+            String term = userName.trim();
+            if (term.length() < UsageService.NGRAM_TOKEN_SIZE) {
+                sql.append(" AND LOWER(u.user_name) LIKE ?");
+                params.add("%" + term.toLowerCase() + "%");
+            } else {
+                sql.append(" AND MATCH(u.user_name) AGAINST (? IN BOOLEAN MODE)");
+                params.add(UsageService.toFullTextPhrase(term));
+            }
+        }
+        if (hasText(barcodeOrItemCode)) {
+            String term = barcodeOrItemCode.trim();
+            if (term.length() < UsageService.NGRAM_TOKEN_SIZE) {
+                sql.append(" AND (u.barcode = ? OR i.code = ? OR LOWER(i.name) LIKE ?)");
+                params.add(term);
+                params.add(term.toUpperCase());
+                params.add("%" + term.toLowerCase() + "%");
+            } else {
+                sql.append(" AND (u.barcode = ? OR i.code = ? OR MATCH(i.name) AGAINST (? IN BOOLEAN MODE))");
+                params.add(term);
+                params.add(term.toUpperCase());
+                params.add(UsageService.toFullTextPhrase(term));
+            }
+        }
+
+        GZIPOutputStream gzip = new GZIPOutputStream(outputStream, 64 * 1024);
+        CSVWriter writer = new CSVWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+        writer.writeNext(USAGE_CSV_HEADERS, false);
+
+        long rows = writeInChunks(sql.toString(), params, "u.used_at", "u.id", 12, (rs, rowNum) -> new String[]{
+            rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+            rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9), rs.getString(10),
+            rs.getString(11), formatTimestamp(rs.getTimestamp(12)), rs.getString(13)
+        }, line -> writer.writeNext(line, false));
+
+        writer.flush();
+        gzip.finish();
+        outputStream.flush();
+        return rows;
+    }
+
+    /**
+     * Write alerts as gzip-compressed newline-delimited JSON.
+     * ownerView = true exports every alert (optionally limited to one item department);
+     * otherwise public items plus the given department are exported (department = null for USER role).
+     * With includeArchived, alerts moved to alerts_archive follow the live ones, filtered the same way on
+     * the item department recorded when they were archived.
+     * @return number of rows written
+     */
+    public long writeAlertsNdjson(boolean ownerView, String department, LocalDateTime startDate,
+                                  LocalDateTime endDate, boolean includeArchived, OutputStream outputStream) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(outputStream, 64 * 1024);
+        JsonGenerator json = jsonFactory.createGenerator(gzip, JsonEncoding.UTF8);
+        // One JSON object per line
+        json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+        List<Object> params = new ArrayList<>();
+        String liveSql =
+            "SELECT a.id, a.item_id, i.name, i.code, i.department, a.alert_type, a.message, " +
+            "a.current_inventory, a.pendingpo, a.used_inventory, a.safety_stock_threshold, " +
+            "a.resolved, a.`read`, a.ignored, a.created_at, a.resolved_at, a.read_at, a.ignored_at " +
+            "FROM alerts a JOIN items i ON i.id = a.item_id WHERE 1 = 1" +
+            alertFilters("i.department", ownerView, department, startDate, endDate, params);
+        long rows = writeInChunks(liveSql, params, "a.created_at", "a.id", 15,
+            (rs, rowNum) -> readAlertRow(rs, false), row -> writeAlertRow(json, row));
+
+        if (includeArchived) {
+            params.clear();
+            String archiveSql =
+                "SELECT a.id, a.item_id, a.item_name, a.item_code, a.item_department, a.alert_type, a.message, " +
+                "a.current_inventory, a.pendingpo, a.used_inventory, a.safety_stock_threshold, " +
+                "a.resolved, a.`read`, a.ignored, a.created_at, a.resolved_at, a.read_at, a.ignored_at " +
+                "FROM alerts_archive a WHERE 1 = 1" +
+                alertFilters("a.item_department", ownerView, department, startDate, endDate, params);
+            rows += writeInChunks(archiveSql, params, "a.created_at", "a.id", 15,
+                (rs, rowNum) -> readAlertRow(rs, true), row -> writeAlertRow(json, row));
+        }
+
+        if (rows > 0) {
+            json.writeRaw('\n');
+        }
+        json.flush();
+        gzip.finish();
+        outputStream.flush();
+        return rows;
+    }
+
+    /**
+     * Department visibility and creation time filters of the alert export, appended to params
+     */
+    private String alertFilters(String departmentColumn, boolean ownerView, String department,
+                                LocalDateTime startDate, LocalDateTime endDate, List<Object> params) {
+        StringBuilder sql = new StringBuilder();
+        if (ownerView) {
+            if (hasText(department)) {
+                sql.append(" AND ").append(departmentColumn).append(" = ?");
+                params.add(department.trim());
+            }
+        } else if (hasText(department)) {
+            sql.append(" AND (").append(departmentColumn).append(" IS NULL OR ").append(departmentColumn)
+                .append(" = '' OR ").append(departmentColumn).append(" = ?)");
+            params.add(department.trim());
+        } else {
+            sql.append(" AND (").append(departmentColumn).append(" IS NULL OR ").append(departmentColumn).append(" = '')");
+        }
+        if (startDate != null) {
+            sql.append(" AND a.created_at >= ?");
+            params.add(Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND a.created_at <= ?");
+            params.add(Timestamp.valueOf(endDate));
+        }
+        return sql.toString();
+    }
+
+    // One alert export row: the selected columns in order, then whether it came from the archive
+    private Object[] readAlertRow(ResultSet rs, boolean archived) throws SQLException {
+        return new Object[]{
+            rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6),
+            rs.getString(7), rs.getInt(8), rs.getInt(9), rs.getInt(10), rs.getInt(11), rs.getBoolean(12),
+            rs.getBoolean(13), rs.getBoolean(14), formatTimestamp(rs.getTimestamp(15)),
+            formatTimestamp(rs.getTimestamp(16)), formatTimestamp(rs.getTimestamp(17)),
+            formatTimestamp(rs.getTimestamp(18)), archived
+        };
+    }
+
+    private void writeAlertRow(JsonGenerator json, Object[] row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", (Long) row[0]);
+        json.writeNumberField("itemId", (Long) row[1]);
+        json.writeStringField("itemName", (String) row[2]);
+        json.writeStringField("itemCode", (String) row[3]);
+        json.writeStringField("itemDepartment", (String) row[4]);
+        json.writeStringField("alertType", (String) row[5]);
+        json.writeStringField("message", (String) row[6]);
+        json.writeNumberField("currentInventory", (Integer) row[7]);
+        json.writeNumberField("pendingPO", (Integer) row[8]);
+        json.writeNumberField("usedInventory", (Integer) row[9]);
+        json.writeNumberField("safetyStockThreshold", (Integer) row[10]);
+        json.writeBooleanField("resolved", (Boolean) row[11]);
+        json.writeBooleanField("read", (Boolean) row[12]);
+        json.writeBooleanField("ignored", (Boolean) row[13]);
+        json.writeStringField("createdAt", (String) row[14]);
+        json.writeStringField("resolvedAt", (String) row[15]);
+        json.writeStringField("readAt", (String) row[16]);
+        json.writeStringField("ignoredAt", (String) row[17]);
+        json.writeBooleanField("archived", (Boolean) row[18]);
+        json.writeEndObject();
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(T row) throws IOException;
+    }
+
+    /**
+     * Run the query newest first, (orderedAt, id) descending, one chunk at a time: each chunk continues after
+     * the last row of the previous one. The query must select id as its first column and the non-null
+     * orderedAt column at orderedAtIndex. A chunk is read completely, and the connection released, before
+     * its rows are written.
+     * @return number of rows written
+     */
+    private <T> long writeInChunks(String sql, List<Object> params, String orderedAtColumn, String idColumn,
+                                   int orderedAtIndex, RowMapper<T> rowMapper, RowWriter<T> rowWriter) throws IOException {
+        long rows = 0;
+        Timestamp afterOrderedAt = null;
+        long afterId = 0;
+        while (true) {
+            List<Object> chunkParams = new ArrayList<>(params);
+            StringBuilder chunkSql = new StringBuilder(sql);
+            if (afterOrderedAt != null) {
+                chunkSql.append(" AND (").append(orderedAtColumn).append(" < ? OR (")
+                    .append(orderedAtColumn).append(" = ? AND ").append(idColumn).append(" < ?))");
+                chunkParams.add(afterOrderedAt);
+                chunkParams.add(afterOrderedAt);
+                chunkParams.add(afterId);
+            }
+            chunkSql.append(" ORDER BY ").append(orderedAtColumn).append(" DESC, ").append(idColumn).append(" DESC LIMIT ?");
+            chunkParams.add(chunkSize);
+
+            Timestamp[] lastOrderedAt = {null};
+            long[] lastId = {0};
+            List<T> chunk = jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(chunkSql.toString());
+                ps.setQueryTimeout(exportQueryTimeoutSeconds);
+                for (int i = 0; i < chunkParams.size(); i++) {
+                    ps.setObject(i + 1, chunkParams.get(i));
+                }
+                return ps;
+            }, rs -> {
+                List<T> mapped = new ArrayList<>(chunkSize);
+                while (rs.next()) {
+                    mapped.add(rowMapper.mapRow(rs, mapped.size()));
+                    lastOrderedAt[0] = rs.getTimestamp(orderedAtIndex);
+                    lastId[0] = rs.getLong(1);
+                }
+                return mapped;
+            });
+
+            for (T row : chunk) {
+                rowWriter.write(row);
+            }
+            rows += chunk.size();
+            if (chunk.size() < chunkSize || lastOrderedAt[0] == null) {
+                return rows;
+            }
+            afterOrderedAt = lastOrderedAt[0];
+            afterId = lastId[0];
+        }
+    }
+
+    private String formatTimestamp(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,367 @@
+package com.inventory.service;
+
+import com.inventory.dto.AlertNotification;
+import com.inventory.entity.Alert;
+import com.inventory.entity.EmailOutboxMessage;
+import com.inventory.repository.AlertRepository;
+import com.inventory.repository.EmailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the email outbox in the background.
+ *
+ * Each sender thread claims a batch of due rows with SELECT ... FOR UPDATE SKIP LOCKED and marks them
+ * SENDING with a lease, so other threads and other nodes skip them; a row whose lease runs out (the node
+ * died mid-send) is claimed again. A due ALERT row pulls in the recipient's other pending alert rows and
+ * they go out as one digest. Each batch is sent over one SMTP connection. Failed rows are retried with
+ * exponential backoff and given up on (FAILED) after app.email.outbox.max-attempts.
+ */
+@Service
+public class EmailOutboxSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxSender.class);
+
+    private static final int PURGE_CHUNK = 1000;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.email.outbox.sender-threads:2}")
+    private int senderThreads;
+
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.poll-ms:2000}")
+    private long pollMs;
+
+    // How long a claimed row stays invisible to other senders
+    @Value("${app.email.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.retry-base-ms:30000}")
+    private long retryBaseMs;
+
+    @Value("${app.email.outbox.retry-max-ms:3600000}")
+    private long retryMaxMs;
+
+    @Value("${app.email.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private final AtomicLong emailsSent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong emailsGivenUp = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong sendMillis = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile long lastBatchMillis;
+
+    private ScheduledThreadPoolExecutor senderExecutor;
+
+    @PostConstruct
+    void startSenders() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        senderExecutor = new ScheduledThreadPoolExecutor(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < senderThreads; i++) {
+            senderExecutor.scheduleWithFixedDelay(this::drain, pollMs, pollMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stopSenders() {
+        // Claimed rows of an interrupted batch are picked up again once their lease expires
+        senderExecutor.shutdownNow();
+    }
+
+    /**
+     * Send batches until nothing is due. Must not throw, or the executor stops scheduling this sender.
+     */
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted() && sendBatch() > 0) {
+                // keep going while there is a backlog
+            }
+        } catch (Exception e) {
+            logger.error("Email outbox sender failed", e);
+        }
+    }
+
+    /**
+     * Claim, send and settle one batch
+     * @return number of outbox rows claimed, 0 if nothing was due
+     */
+    int sendBatch() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<EmailOutboxMessage> claimed = transactionTemplate.execute(status -> claim());
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        // message -> the outbox rows it delivers
+        Map<MimeMessage, List<EmailOutboxMessage>> messages = new LinkedHashMap<>();
+        Map<Long, String> errors = new HashMap<>();
+        List<Long> obsolete = new ArrayList<>();
+
+        Map<String, List<EmailOutboxMessage>> alertRowsByRecipient = new LinkedHashMap<>();
+        for (EmailOutboxMessage row : claimed) {
+            if (row.getKind() == EmailOutboxMessage.Kind.ALERT) {
+                alertRowsByRecipient.computeIfAbsent(row.getRecipient(), k -> new ArrayList<>()).add(row);
+                continue;
+            }
+            try {
+                messages.put(emailService.createMessage(row.getRecipient(), row.getSubject(), row.getBody(), row.getReplyTo()), List.of(row));
+            } catch (Exception e) {
+                errors.put(row.getId(), describe(e));
+            }
+        }
+
+        if (!alertRowsByRecipient.isEmpty()) {
+            Map<Long, AlertNotification> openAlerts = loadOpenAlerts(claimed);
+            for (Map.Entry<String, List<EmailOutboxMessage>> entry : alertRowsByRecipient.entrySet()) {
+                // Several rows for one alert (e.g. opened, then escalated) show its current state once
+                Set<Long> alertIds = new LinkedHashSet<>();
+                entry.getValue().forEach(row -> alertIds.add(row.getAlertId()));
+                List<AlertNotification> alerts = new ArrayList<>();
+                for (Long alertId : alertIds) {
+                    if (openAlerts.containsKey(alertId)) {
+                        alerts.add(openAlerts.get(alertId));
+                    }
+                }
+                if (alerts.isEmpty()) {
+                    // Every alert was resolved, ignored or deleted before the digest went out
+                    entry.getValue().forEach(row -> obsolete.add(row.getId()));
+                    continue;
+                }
+                try {
+                    messages.put(emailService.createAlertMessage(entry.getKey(), alerts), entry.getValue());
+                } catch (Exception e) {
+                    entry.getValue().forEach(row -> errors.put(row.getId(), describe(e)));
+                }
+            }
+        }
+
+        long startedAt = System.currentTimeMillis();
+        if (!messages.isEmpty()) {
+            try {
+                // An array of messages goes out over one SMTP connection
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                e.getFailedMessages().forEach((message, cause) -> {
+                    List<EmailOutboxMessage> rows = messages.get(message);
+                    if (rows != null) {
+                        rows.forEach(row -> errors.put(row.getId(), describe(cause)));
+                    }
+                });
+                if (e.getFailedMessages().isEmpty()) {
+                    messages.values().forEach(rows -> rows.forEach(row -> errors.put(row.getId(), describe(e))));
+                }
+            } catch (Exception e) {
+                messages.values().forEach(rows -> rows.forEach(row -> errors.put(row.getId(), describe(e))));
+            }
+        }
+        long elapsed = System.currentTimeMillis() - startedAt;
+
+        List<Long> sentIds = new ArrayList<>();
+        int sentMessages = 0;
+        for (List<EmailOutboxMessage> rows : messages.values()) {
+            if (rows.stream().noneMatch(row -> errors.containsKey(row.getId()))) {
+                rows.forEach(row -> sentIds.add(row.getId()));
+                sentMessages++;
+            }
+        }
+        List<EmailOutboxMessage> failedRows = claimed.stream().filter(row -> errors.containsKey(row.getId())).toList();
+        transactionTemplate.executeWithoutResult(status -> settle(sentIds, obsolete, failedRows, errors));
+
+        emailsSent.addAndGet(sentMessages);
+        batchesSent.incrementAndGet();
+        sendMillis.addAndGet(elapsed);
+        lastBatchSize = messages.size();
+        lastBatchMillis = elapsed;
+        if (!failedRows.isEmpty()) {
+            logger.warn("Email outbox batch: {} of {} emails sent in {} ms, {} outbox rows failed",
+                sentMessages, messages.size(), elapsed, failedRows.size());
+        } else {
+            logger.info("Email outbox batch: {} emails sent in {} ms", sentMessages, elapsed);
+        }
+        return claimed.size();
+    }
+
+    private List<EmailOutboxMessage> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(outboxRepository.lockDueIds(now, batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<EmailOutboxMessage> rows = new ArrayList<>(outboxRepository.findAllById(ids));
+
+        // Take the rest of each alert recipient's window along, so the recipient gets one digest
+        Set<String> alertRecipients = new LinkedHashSet<>();
+        rows.stream().filter(row -> row.getKind() == EmailOutboxMessage.Kind.ALERT)
+            .forEach(row -> alertRecipients.add(row.getRecipient()));
+        if (!alertRecipients.isEmpty()) {
+            List<Long> windowIds = new ArrayList<>(outboxRepository.lockPendingAlertIds(alertRecipients));
+            windowIds.removeAll(ids);
+            if (!windowIds.isEmpty()) {
+                rows.addAll(outboxRepository.findAllById(windowIds));
+                ids.addAll(windowIds);
+            }
+        }
+
+        outboxRepository.markSending(ids, now.plus(leaseMs, ChronoUnit.MILLIS));
+        return rows;
+    }
+
+    private Map<Long, AlertNotification> loadOpenAlerts(List<EmailOutboxMessage> rows) {
+        Set<Long> alertIds = new LinkedHashSet<>();
+        rows.stream().filter(row -> row.getAlertId() != null).forEach(row -> alertIds.add(row.getAlertId()));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> {
+            Map<Long, AlertNotification> openAlerts = new HashMap<>();
+            for (Alert alert : alertRepository.findAllWithItemByIdIn(alertIds)) {
+                if (!Boolean.TRUE.equals(alert.getResolved()) && !Boolean.TRUE.equals(alert.getIgnored())) {
+                    openAlerts.put(alert.getId(), AlertNotification.from(alert));
+                }
+            }
+            return openAlerts;
+        });
+    }
+
+    private void settle(List<Long> sentIds, List<Long> obsolete, List<EmailOutboxMessage> failedRows, Map<Long, String> errors) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!sentIds.isEmpty()) {
+            outboxRepository.markSent(sentIds, now);
+        }
+        if (!obsolete.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(obsolete);
+        }
+        for (EmailOutboxMessage row : failedRows) {
+            int attempts = row.getAttempts() + 1;
+            row.setAttempts(attempts);
+            row.setLockedUntil(null);
+            row.setLastError(errors.get(row.getId()));
+            sendFailures.incrementAndGet();
+            if (attempts >= maxAttempts) {
+                row.setStatus(EmailOutboxMessage.Status.FAILED);
+                // Kept for inspection without its body, which may hold credentials
+                row.setBody(null);
+                emailsGivenUp.incrementAndGet();
+                logger.error("Giving up on email to {} after {} attempts: {}", row.getRecipient(), attempts, row.getLastError());
+            } else {
+                row.setStatus(EmailOutboxMessage.Status.PENDING);
+                row.setNextAttemptAt(now.plus(retryDelayMs(attempts), ChronoUnit.MILLIS));
+            }
+        }
+        if (!failedRows.isEmpty()) {
+            outboxRepository.saveAll(failedRows);
+        }
+    }
+
+    /**
+     * Exponential backoff with up to 20% jitter, so rows that failed together do not retry together
+     */
+    private long retryDelayMs(int attempts) {
+        long delay = retryBaseMs << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, retryMaxMs);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private static String describe(Throwable e) {
+        String description = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        return description.length() > 1000 ? description.substring(0, 1000) : description;
+    }
+
+    /**
+     * Drop sent rows after the retention period; failed rows are kept for inspection
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.purge-ms:3600000}", initialDelayString = "${app.email.outbox.purge-ms:3600000}")
+    public void purgeSent() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> outboxRepository.deleteSentBefore(cutoff, PURGE_CHUNK));
+                purged += deleted;
+            } while (deleted == PURGE_CHUNK);
+            if (purged > 0) {
+                logger.info("Purged {} sent emails older than {} days from the outbox", purged, retentionDays);
+            }
+        } catch (Exception e) {
+            logger.error("Email outbox purge failed", e);
+        }
+    }
+
+    /**
+     * Outbox depth and send throughput since startup
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (EmailOutboxMessage.Status status : EmailOutboxMessage.Status.values()) {
+            metrics.put(status.name().toLowerCase(), 0L);
+        }
+        for (Object[] row : outboxRepository.countByStatus()) {
+            metrics.put(row[0].toString().toLowerCase(), ((Number) row[1]).longValue());
+        }
+        LocalDateTime oldestPending = outboxRepository.findOldestPendingCreatedAt();
+        metrics.put("oldestPendingSeconds", oldestPending != null ? Duration.between(oldestPending, LocalDateTime.now()).getSeconds() : 0);
+
+        long totalSendMillis = sendMillis.get();
+        metrics.put("emailsSent", emailsSent.get());
+        metrics.put("sendFailures", sendFailures.get());
+        metrics.put("emailsGivenUp", emailsGivenUp.get());
+        metrics.put("batchesSent", batchesSent.get());
+        metrics.put("lastBatchSize", lastBatchSize);
+        metrics.put("lastBatchMillis", lastBatchMillis);
+        metrics.put("emailsPerSecond", totalSendMillis > 0 ? emailsSent.get() * 1000.0 / totalSendMillis : 0.0);
+        return metrics;
+    }
+}
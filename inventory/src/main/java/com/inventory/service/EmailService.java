@@ -1,12 +1,21 @@
 package com.inventory.service;
 
 import com.inventory.entity.Alert;
+import com.inventory.dto.AlertNotification;
 import com.inventory.dto.ContactFormRequest;
 
+import jakarta.mail.internet.MimeMessage;
+import java.util.List;
+
+/**
+ * Outbound email. The send methods only write to the email outbox, in the caller's transaction if there
+ * is one; EmailOutboxSender delivers the queued emails in the background.
+ */
 public interface EmailService {
     
     /**
      * Send alert notification email
+     * Alerts queued for the same recipient within the digest window are sent as one email.
      * @param alert The alert to send notification for
      * @param recipientEmail Email address to send to
      */
@@ -33,4 +42,20 @@ public interface EmailService {
      * @param alertCount Number of active alerts
      */
     void sendLowStockSummary(String recipientEmail, long alertCount);
+    
+    /**
+     * Build the email for one or more alerts; a single alert gets the regular alert email, several a digest
+     * @param recipientEmail Email address to send to
+     * @param alerts Alerts to include
+     */
+    MimeMessage createAlertMessage(String recipientEmail, List<AlertNotification> alerts) throws Exception;
+    
+    /**
+     * Build an email from content that was rendered when it was queued
+     * @param recipientEmail Email address to send to
+     * @param subject Subject line
+     * @param html HTML body
+     * @param replyTo Reply-to address, or null
+     */
+    MimeMessage createMessage(String recipientEmail, String subject, String html, String replyTo) throws Exception;
 } 
\ No newline at end of file
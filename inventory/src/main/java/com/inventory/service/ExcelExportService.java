@@ -2,73 +2,138 @@ package com.inventory.service;
 
 import com.inventory.entity.Usage;
 import com.inventory.entity.Alert;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class ExcelExportService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    public byte[] exportUsageToExcel(List<Usage> usageRecords) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Usage Report");
+    // Rows kept in memory by SXSSF before older rows are flushed to a temporary file
+    private static final int STREAMING_ROW_WINDOW = 100;
 
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setFontHeightInPoints((short) 12);
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+    private static final int MAX_COLUMN_WIDTH_CHARS = 255;
 
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {
-                "ID", "User Name", "Department", "D Number", "Item Name", "Item Code", 
-                "Barcode", "Quantity Used", "Notes", "Used At", "Location"
-            };
+    /**
+     * Workbook for fillUsageWorkbook; only a small window of rows is kept in memory, older rows are
+     * flushed to compressed temporary files. The caller writes it out, then disposes of it.
+     */
+    public SXSSFWorkbook createUsageWorkbook() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(STREAMING_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
 
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
+    /**
+     * Add a usage report to a workbook from createUsageWorkbook.
+     * Rows are consumed one at a time from the stream; column widths are computed from the written
+     * values instead of autoSizeColumn, which would need every row in memory.
+     * @return number of usage rows written
+     */
+    public long fillUsageWorkbook(SXSSFWorkbook workbook, Stream<Usage> usageRecords) {
+        // Create header style
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerFont.setFontHeightInPoints((short) 12);
+        headerStyle.setFont(headerFont);
+        headerStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+        String[] headers = {
+            "ID", "User Name", "Department", "D Number", "Item Name", "Item Code", 
+            "Barcode", "Quantity Used", "Notes", "Used At", "Location"
+        };
+        int[] columnWidths = new int[headers.length];
+
+        Sheet sheet = createUsageSheet(workbook, 1, headers, headerStyle, columnWidths);
+        int sheetCount = 1;
+        int rowNum = 1;
+        int maxRows = SpreadsheetVersion.EXCEL2007.getMaxRows();
+        long rowsWritten = 0;
+
+        // Fill data rows
+        Iterator<Usage> iterator = usageRecords.iterator();
+        while (iterator.hasNext()) {
+            Usage usage = iterator.next();
+
+            // Continue on a new sheet once the current one is full
+            if (rowNum >= maxRows) {
+                applyColumnWidths(sheet, columnWidths);
+                columnWidths = new int[headers.length];
+                sheet = createUsageSheet(workbook, ++sheetCount, headers, headerStyle, columnWidths);
+                rowNum = 1;
             }
 
-            // Fill data rows
-            int rowNum = 1;
-            for (Usage usage : usageRecords) {
-                Row row = sheet.createRow(rowNum++);
-                
-                row.createCell(0).setCellValue(usage.getId());
-                row.createCell(1).setCellValue(usage.getUserName());
-                row.createCell(2).setCellValue(usage.getDepartment() != null ? usage.getDepartment() : "");
-                row.createCell(3).setCellValue(usage.getDNumber() != null ? usage.getDNumber() : "");
-                row.createCell(4).setCellValue(usage.getItem().getName());
-                row.createCell(5).setCellValue(usage.getItem().getCode());
-                row.createCell(6).setCellValue(usage.getBarcode());
-                row.createCell(7).setCellValue(usage.getQuantityUsed());
-                row.createCell(8).setCellValue(usage.getNotes() != null ? usage.getNotes() : "");
-                row.createCell(9).setCellValue(usage.getUsedAt().format(DATE_FORMATTER));
-                row.createCell(10).setCellValue(usage.getItem().getLocation() != null ? usage.getItem().getLocation() : "");
-            }
+            Row row = sheet.createRow(rowNum++);
+            
+            setNumericCell(row, 0, usage.getId(), columnWidths);
+            setTextCell(row, 1, usage.getUserName(), columnWidths);
+            setTextCell(row, 2, usage.getDepartment() != null ? usage.getDepartment() : "", columnWidths);
+            setTextCell(row, 3, usage.getDNumber() != null ? usage.getDNumber() : "", columnWidths);
+            setTextCell(row, 4, usage.getItem().getName(), columnWidths);
+            setTextCell(row, 5, usage.getItem().getCode(), columnWidths);
+            setTextCell(row, 6, usage.getBarcode(), columnWidths);
+            setNumericCell(row, 7, usage.getQuantityUsed(), columnWidths);
+            setTextCell(row, 8, usage.getNotes() != null ? usage.getNotes() : "", columnWidths);
+            setTextCell(row, 9, usage.getUsedAt().format(DATE_FORMATTER), columnWidths);
+            setTextCell(row, 10, usage.getItem().getLocation() != null ? usage.getItem().getLocation() : "", columnWidths);
+            rowsWritten++;
+        }
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+        applyColumnWidths(sheet, columnWidths);
+        return rowsWritten;
+    }
 
-            // Write to byte array
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
+    private Sheet createUsageSheet(SXSSFWorkbook workbook, int sheetNumber, String[] headers,
+                                   CellStyle headerStyle, int[] columnWidths) {
+        Sheet sheet = workbook.createSheet(sheetNumber == 1 ? "Usage Report" : "Usage Report (" + sheetNumber + ")");
+
+        // Create header row
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            setTextCell(headerRow, i, headers[i], columnWidths);
+            headerRow.getCell(i).setCellStyle(headerStyle);
+        }
+        return sheet;
+    }
+
+    private void setTextCell(Row row, int column, String value, int[] columnWidths) {
+        row.createCell(column).setCellValue(value);
+        trackWidth(column, value != null ? value.length() : 0, columnWidths);
+    }
+
+    private void setNumericCell(Row row, int column, Number value, int[] columnWidths) {
+        Cell cell = row.createCell(column);
+        if (value != null) {
+            cell.setCellValue(value.doubleValue());
+            trackWidth(column, value.toString().length(), columnWidths);
+        }
+    }
+
+    private void trackWidth(int column, int characters, int[] columnWidths) {
+        if (characters > columnWidths[column]) {
+            columnWidths[column] = characters;
+        }
+    }
+
+    private void applyColumnWidths(Sheet sheet, int[] columnWidths) {
+        for (int i = 0; i < columnWidths.length; i++) {
+            // Width is measured in 1/256th of a character; Excel caps a column at 255 characters
+            int characters = Math.min(columnWidths[i] + 2, MAX_COLUMN_WIDTH_CHARS);
+            sheet.setColumnWidth(i, characters * 256);
         }
     }
 
@@ -0,0 +1,396 @@
+package com.inventory.service;
+
+import com.inventory.entity.Item;
+import com.inventory.event.ItemChangedEvent;
+import com.inventory.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented copy of the stock fields of every item, for the analytics endpoints.
+ *
+ * Low-stock, stock-alert and inventory statistics predicates compare each item's stock with a percentage
+ * of its own safety stock, which no index can serve, so the database scanned the whole items table on every
+ * call. Here the same predicates run as loops over int arrays (split over the common fork-join pool for
+ * large tables). The snapshot is kept current from committed item changes and fully reloaded
+ * every app.stats.item-snapshot.reload-ms to pick up writes made by other application nodes.
+ *
+ * Department filter semantics match the repository queries: null / empty = all items, otherwise the
+ * department's items plus public items. Departments compare like the MySQL collation did: case-insensitive
+ * and ignoring surrounding spaces.
+ */
+@Service
+public class ItemSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSnapshotService.class);
+
+    // Department ordinal of public items (department NULL or empty)
+    private static final int PUBLIC_DEPARTMENT = 0;
+
+    private static final Item.ABCCategory[] CATEGORIES = Item.ABCCategory.values();
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    // Smaller snapshots are scanned on the calling thread; forking only pays off on large tables
+    @Value("${app.stats.item-snapshot.parallel-threshold:50000}")
+    private int parallelThreshold;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Columns columns;
+    // Non-null while a reload reads the table; changes committed meanwhile are replayed onto the new columns
+    private List<ItemChangedEvent> changesDuringReload;
+
+    /**
+     * One row per item; rows [0, size) are live. Deleting an item moves the last row into its slot.
+     */
+    private static final class Columns {
+        long[] ids;
+        int[] departments;
+        int[] current;
+        int[] pending;
+        int[] used;
+        int[] safety;
+        byte[] categories;
+        int size;
+
+        final Map<Long, Integer> rowById = new HashMap<>();
+        // Ordinal -> department name; ordinal 0 is public
+        final List<String> departmentNames = new ArrayList<>();
+        final Map<String, Integer> departmentOrdinals = new HashMap<>();
+
+        Columns(int capacity) {
+            int initialCapacity = Math.max(capacity, 16);
+            ids = new long[initialCapacity];
+            departments = new int[initialCapacity];
+            current = new int[initialCapacity];
+            pending = new int[initialCapacity];
+            used = new int[initialCapacity];
+            safety = new int[initialCapacity];
+            categories = new byte[initialCapacity];
+            departmentNames.add("");
+            departmentOrdinals.put("", PUBLIC_DEPARTMENT);
+        }
+
+        int departmentOrdinal(String department) {
+            return departmentOrdinals.computeIfAbsent(departmentKey(department), name -> {
+                departmentNames.add(name);
+                return departmentNames.size() - 1;
+            });
+        }
+
+        void put(long id, String department, int currentInventory, int pendingPO, int usedInventory,
+                 int safetyStockThreshold, Item.ABCCategory category) {
+            Integer row = rowById.get(id);
+            if (row == null) {
+                if (size == ids.length) {
+                    grow();
+                }
+                row = size++;
+                rowById.put(id, row);
+            }
+            ids[row] = id;
+            departments[row] = departmentOrdinal(department);
+            current[row] = currentInventory;
+            pending[row] = pendingPO;
+            used[row] = usedInventory;
+            safety[row] = safetyStockThreshold;
+            categories[row] = (byte) (category != null ? category : Item.ABCCategory.C).ordinal();
+        }
+
+        void remove(long id) {
+            Integer row = rowById.remove(id);
+            if (row == null) {
+                return;
+            }
+            int last = --size;
+            if (row != last) {
+                ids[row] = ids[last];
+                departments[row] = departments[last];
+                current[row] = current[last];
+                pending[row] = pending[last];
+                used[row] = used[last];
+                safety[row] = safety[last];
+                categories[row] = categories[last];
+                rowById.put(ids[row], row);
+            }
+        }
+
+        void apply(ItemChangedEvent event) {
+            if (event.isRemoved()) {
+                remove(event.getItemId());
+            } else {
+                put(event.getItemId(), event.getDepartment(), event.getCurrentInventory(), event.getPendingPO(),
+                    event.getUsedInventory(), event.getSafetyStockThreshold(), event.getCategory());
+            }
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            departments = Arrays.copyOf(departments, capacity);
+            current = Arrays.copyOf(current, capacity);
+            pending = Arrays.copyOf(pending, capacity);
+            used = Arrays.copyOf(used, capacity);
+            safety = Arrays.copyOf(safety, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringReload != null) {
+                changesDuringReload.add(event);
+            }
+            if (columns != null) {
+                columns.apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Rebuild the snapshot from the items table; one reload at a time
+     */
+    @Scheduled(fixedDelayString = "${app.stats.item-snapshot.reload-ms:600000}", initialDelayString = "${app.stats.item-snapshot.reload-ms:600000}")
+    public synchronized void reload() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                changesDuringReload = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<Object[]> rows;
+            try {
+                rows = itemRepository.findSnapshotColumns();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    changesDuringReload = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            Columns loaded = new Columns(rows.size());
+            for (Object[] row : rows) {
+                loaded.put((Long) row[0], (String) row[1], intValue(row[2]), intValue(row[3]), intValue(row[4]),
+                    intValue(row[5]), (Item.ABCCategory) row[6]);
+            }
+
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                // The read may or may not include these changes; replaying them makes the result current either way
+                replayed = changesDuringReload.size();
+                changesDuringReload.forEach(loaded::apply);
+                changesDuringReload = null;
+                columns = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            logger.info("Item snapshot loaded: {} items, {} departments, {} changes replayed in {} ms",
+                loaded.size, loaded.departmentNames.size() - 1, replayed, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            logger.error("Item snapshot reload failed", e);
+        }
+    }
+
+    /**
+     * Ids of items above safety stock but at or below 110% of it, same as ItemRepository.findLowStockItems
+     */
+    public List<Long> findLowStockItemIds(String department) {
+        lock.readLock().lock();
+        try {
+            Columns c = readColumns();
+            IntPredicate visible = visibleRows(c, department);
+            return toIds(c, matchRows(c, row -> {
+                int safety = c.safety[row];
+                int current = c.current[row];
+                // CEILING(safety * 1.1) in exact integer arithmetic; a double 1.1 would round 10 * 1.1 up to 12
+                return safety > 0 && current > safety && current <= (safety * 11 + 9) / 10 && visible.test(row);
+            }));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of items at or below warningThresholdPercent of safety stock, lowest stock ratio first,
+     * same as ItemRepository.findStockAlertItems
+     */
+    public List<Long> findStockAlertItemIds(String department, int warningThresholdPercent) {
+        lock.readLock().lock();
+        try {
+            Columns c = readColumns();
+            IntPredicate visible = visibleRows(c, department);
+            int[] rows = matchRows(c, row -> {
+                int safety = c.safety[row];
+                return safety > 0 && c.current[row] <= safety * warningThresholdPercent / 100.0 && visible.test(row);
+            });
+            Integer[] ordered = Arrays.stream(rows).boxed().toArray(Integer[]::new);
+            Arrays.sort(ordered, (a, b) -> Double.compare(
+                (double) c.current[a] / c.safety[a], (double) c.current[b] / c.safety[b]));
+            List<Long> ids = new ArrayList<>(ordered.length);
+            for (Integer row : ordered) {
+                ids.add(c.ids[row]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inventory statistics of items with a safety stock, same shape as ItemRepository.getInventoryStatistics:
+     * {item count, total quantity, average quantity (null without items), items below warning, items below critical}
+     */
+    public Object[] getInventoryStatistics(String department, int warningThresholdPercent, int criticalThresholdPercent) {
+        lock.readLock().lock();
+        try {
+            Columns c = readColumns();
+            IntPredicate visible = visibleRows(c, department);
+            // {count, sum, below warning, below critical}
+            long[] totals = chunks(c.size)
+                .mapToObj(chunk -> {
+                    long[] partial = new long[4];
+                    int end = Math.min(c.size, chunk + parallelThreshold);
+                    for (int row = chunk; row < end; row++) {
+                        int safety = c.safety[row];
+                        if (safety <= 0 || !visible.test(row)) {
+                            continue;
+                        }
+                        int current = c.current[row];
+                        partial[0]++;
+                        partial[1] += current;
+                        if (current <= safety * warningThresholdPercent / 100.0) partial[2]++;
+                        if (current <= safety * criticalThresholdPercent / 100.0) partial[3]++;
+                    }
+                    return partial;
+                })
+                .reduce(new long[4], (a, b) -> new long[]{a[0] + b[0], a[1] + b[1], a[2] + b[2], a[3] + b[3]});
+            Double average = totals[0] > 0 ? (double) totals[1] / totals[0] : null;
+            return new Object[]{totals[0], totals[1], average, totals[2], totals[3]};
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of items per ABC category
+     */
+    public Map<Item.ABCCategory, Long> countByCategory(String department) {
+        lock.readLock().lock();
+        try {
+            Columns c = readColumns();
+            IntPredicate visible = visibleRows(c, department);
+            long[] counts = new long[CATEGORIES.length];
+            for (int row = 0; row < c.size; row++) {
+                if (visible.test(row)) {
+                    counts[c.categories[row]]++;
+                }
+            }
+            Map<Item.ABCCategory, Long> result = new EnumMap<>(Item.ABCCategory.class);
+            for (Item.ABCCategory category : CATEGORIES) {
+                result.put(category, counts[category.ordinal()]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Current columns; loads them first if the startup load has not finished (or failed).
+     * Called with the read lock held.
+     */
+    private Columns readColumns() {
+        if (columns == null) {
+            lock.readLock().unlock();
+            try {
+                reload();
+            } finally {
+                lock.readLock().lock();
+            }
+            if (columns == null) {
+                throw new IllegalStateException("Item snapshot is not available");
+            }
+        }
+        return columns;
+    }
+
+    private IntPredicate visibleRows(Columns c, String department) {
+        if (department == null || department.trim().isEmpty()) {
+            return row -> true;
+        }
+        Integer ordinal = c.departmentOrdinals.get(departmentKey(department));
+        int departmentOrdinal = ordinal != null ? ordinal : PUBLIC_DEPARTMENT;
+        return row -> c.departments[row] == PUBLIC_DEPARTMENT || c.departments[row] == departmentOrdinal;
+    }
+
+    /**
+     * Lookup key of a department; "" for public items
+     */
+    static String departmentKey(String department) {
+        return department == null ? "" : department.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int[] matchRows(Columns c, IntPredicate predicate) {
+        IntStream rows = IntStream.range(0, c.size);
+        return (c.size >= parallelThreshold ? rows.parallel() : rows).filter(predicate).toArray();
+    }
+
+    /**
+     * Start rows of the parallelThreshold-sized chunks covering [0, size); parallel when there is more than one
+     */
+    private IntStream chunks(int size) {
+        int chunkCount = Math.max(1, (size + parallelThreshold - 1) / parallelThreshold);
+        IntStream starts = IntStream.range(0, chunkCount).map(i -> i * parallelThreshold);
+        return chunkCount > 1 ? starts.parallel() : starts;
+    }
+
+    private List<Long> toIds(Columns c, int[] rows) {
+        List<Long> ids = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            ids.add(c.ids[row]);
+        }
+        return ids;
+    }
+
+    private static int intValue(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+}
@@ -0,0 +1,396 @@
+package com.inventory.service;
+
+import com.inventory.entity.User;
+import com.inventory.event.AlertChangedEvent;
+import com.inventory.event.AlertsBulkChangedEvent;
+import com.inventory.event.ItemChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes alert counts, new alerts and item stock changes to browsers over server-sent events.
+ *
+ * Subscribers see the same items / alerts as the REST listings: OWNER sees everything, ADMIN sees
+ * public items plus their department, USER sees public items only. Updates are driven by
+ * after-commit events, so clients never see a change that was rolled back.
+ *
+ * Every subscriber has a bounded outbound queue drained by a small shared pool; a client that
+ * falls behind and fills its queue, or whose send blocks for longer than the send timeout, is
+ * disconnected (the browser EventSource reconnects). Count flushes and the send watchdog run on
+ * their own thread so blocked sends cannot hold them up.
+ */
+@Service
+public class LiveUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveUpdateService.class);
+
+    // Scope key of OWNER subscribers; other scopes are keyed by department ('' = public items only)
+    private static final String OWNER_SCOPE = "*";
+
+    // Alert changes arriving within this window are pushed as one count update
+    private static final long COUNT_FLUSH_DELAY_MS = 250;
+
+    @Autowired
+    private AlertCounterService alertCounterService;
+
+    @Value("${app.live-updates.client-buffer-size:100}")
+    private int clientBufferSize;
+
+    @Value("${app.live-updates.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    @Value("${app.live-updates.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${app.live-updates.sender-threads:2}")
+    private int senderThreads;
+
+    // A send blocked this long (client not reading) disconnects the subscriber
+    @Value("${app.live-updates.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Scopes whose alert counts changed since the last flush
+    private final Set<String> dirtyCountScopes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean allCountScopesDirty = new AtomicBoolean(false);
+    private final AtomicBoolean countFlushScheduled = new AtomicBoolean(false);
+
+    private ThreadPoolExecutor senderExecutor;
+
+    // Alert count flushes and the send watchdog
+    private ScheduledThreadPoolExecutor countExecutor;
+
+    @PostConstruct
+    void startSenders() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        senderExecutor = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "live-updates-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        countExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "live-updates-counts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkIntervalMs = Math.max(100, sendTimeoutMs / 2);
+        countExecutor.scheduleWithFixedDelay(this::disconnectStalledSubscribers,
+            checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopSenders() {
+        subscribers.forEach(subscriber -> subscriber.close(null));
+        countExecutor.shutdownNow();
+        senderExecutor.shutdownNow();
+    }
+
+    /**
+     * Open a stream for the given user; the first event carries the current alert counts
+     * @return the emitter, or null if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(User user) {
+        if (subscribers.size() >= maxSubscribers) {
+            logger.warn("Live update subscriber limit ({}) reached, rejecting {}", maxSubscribers, user.getUsername());
+            return null;
+        }
+
+        boolean ownerView = user.getRole() == User.UserRole.OWNER;
+        String department = user.getRole() == User.UserRole.ADMIN ? user.getDepartment() : null;
+        Subscriber subscriber = new Subscriber(new SseEmitter(emitterTimeoutMs), ownerView, department, user.getUsername());
+
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscriber.close(null));
+        subscriber.emitter.onError(error -> subscriber.close(null));
+        subscribers.add(subscriber);
+
+        subscriber.offer(SseEmitter.event().name("alert-counts")
+            .data(countAlerts(ownerView, department), MediaType.APPLICATION_JSON));
+        logger.info("Live update subscriber {} connected ({} open)", user.getUsername(), subscribers.size());
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertChanged(AlertChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        if (event.getChange() == AlertChangedEvent.Change.CREATED) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("id", event.getAlertId());
+            payload.put("itemId", event.getItemId());
+            payload.put("alertType", event.getAlertType());
+            payload.put("message", event.getMessage());
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.canSee(event.getItemDepartment())) {
+                    subscriber.offer(SseEmitter.event().name("alert").data(payload, MediaType.APPLICATION_JSON));
+                }
+            }
+        }
+
+        markCountsDirty(event.getItemDepartment());
+        scheduleCountFlush();
+    }
+
+    /**
+     * A bulk action changed many alerts: one count update per affected scope, no per-alert events
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertsBulkChanged(AlertsBulkChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        event.getItemDepartments().forEach(this::markCountsDirty);
+        scheduleCountFlush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("itemId", event.getItemId());
+        if (event.isRemoved()) {
+            payload.put("removed", true);
+        } else {
+            payload.put("currentInventory", event.getCurrentInventory());
+            payload.put("pendingPO", event.getPendingPO());
+            payload.put("usedInventory", event.getUsedInventory());
+            payload.put("safetyStockThreshold", event.getSafetyStockThreshold());
+        }
+        for (Subscriber subscriber : subscribers) {
+            // A department move is shown to those who could see the item before as well
+            if (subscriber.canSee(event.getDepartment()) || subscriber.canSee(event.getPreviousDepartment())) {
+                subscriber.offer(SseEmitter.event().name("stock").data(payload, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    /**
+     * Keep idle connections (and proxies in between) alive
+     */
+    @Scheduled(fixedRateString = "${app.live-updates.heartbeat-ms:20000}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void markCountsDirty(String department) {
+        if (isPublic(department)) {
+            allCountScopesDirty.set(true);
+        } else {
+            dirtyCountScopes.add(OWNER_SCOPE);
+            dirtyCountScopes.add(department);
+        }
+    }
+
+    private void scheduleCountFlush() {
+        if (countFlushScheduled.compareAndSet(false, true)) {
+            countExecutor.schedule(this::flushAlertCounts, COUNT_FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Recount alerts once per changed scope and push the result to that scope's subscribers
+     */
+    private void flushAlertCounts() {
+        countFlushScheduled.set(false);
+        boolean allDirty = allCountScopesDirty.getAndSet(false);
+        Set<String> dirty = new HashSet<>();
+        for (String scope : dirtyCountScopes) {
+            dirtyCountScopes.remove(scope);
+            dirty.add(scope);
+        }
+
+        try {
+            Map<String, Map<String, Long>> countsByScope = new HashMap<>();
+            for (Subscriber subscriber : subscribers) {
+                if (!allDirty && !dirty.contains(subscriber.scope)) {
+                    continue;
+                }
+                Map<String, Long> counts = countsByScope.computeIfAbsent(subscriber.scope,
+                    scope -> countAlerts(subscriber.ownerView, subscriber.department));
+                subscriber.offer(SseEmitter.event().name("alert-counts").data(counts, MediaType.APPLICATION_JSON));
+            }
+        } catch (Exception e) {
+            logger.error("Failed to push alert counts", e);
+        }
+    }
+
+    /**
+     * Drop subscribers whose current send has been blocked longer than the send timeout
+     * and interrupt the sender thread so it can serve the other subscribers again
+     */
+    private void disconnectStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                logger.warn("Live update send to {} blocked for more than {} ms, disconnecting",
+                    subscriber.username, sendTimeoutMs);
+                subscriber.abortSend(startedAt);
+            }
+        }
+    }
+
+    private Map<String, Long> countAlerts(boolean ownerView, String department) {
+        long[] visible = alertCounterService.getVisibleCounts(ownerView, department);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("activeAlerts", visible[AlertCounterService.ACTIVE]);
+        counts.put("unreadAlerts", visible[AlertCounterService.UNREAD]);
+        return counts;
+    }
+
+    private static boolean isPublic(String department) {
+        return department == null || department.trim().isEmpty();
+    }
+
+    private class Subscriber {
+        final SseEmitter emitter;
+        final boolean ownerView;
+        final String department;
+        final String scope;
+        final String username;
+        final ArrayBlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(clientBufferSize);
+        final AtomicBoolean draining = new AtomicBoolean(false);
+        final AtomicBoolean completed = new AtomicBoolean(false);
+        volatile boolean closed;
+        // nanoTime the send in progress started at (0 when idle) and the thread running it
+        volatile long sendStartedAt;
+        volatile Thread sendingThread;
+
+        Subscriber(SseEmitter emitter, boolean ownerView, String department, String username) {
+            this.emitter = emitter;
+            this.ownerView = ownerView;
+            this.department = isPublic(department) ? null : department.trim();
+            this.scope = ownerView ? OWNER_SCOPE : (this.department != null ? this.department : "");
+            this.username = username;
+        }
+
+        boolean canSee(String itemDepartment) {
+            return ownerView || isPublic(itemDepartment) || itemDepartment.equals(department);
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                logger.warn("Live update subscriber {} fell {} events behind, disconnecting", username, clientBufferSize);
+                close(null);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senderExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null) {
+                    sendingThread = Thread.currentThread();
+                    sendStartedAt = System.nanoTime();
+                    try {
+                        emitter.send(event);
+                    } finally {
+                        sendStartedAt = 0;
+                        sendingThread = null;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, or the send was aborted by the watchdog
+                close(e);
+            } finally {
+                draining.set(false);
+                // Don't carry a watchdog interrupt over to the next subscriber served by this thread
+                Thread.interrupted();
+            }
+            if (closed) {
+                // Closed by the watchdog while the send was blocked
+                completeEmitter(null);
+                return;
+            }
+            // An event may have been queued after the last poll but before draining was released
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senderExecutor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Called by the watchdog: detach the subscriber and interrupt the blocked send.
+         * The emitter is completed by the sender thread once the send returns, as completing it
+         * here would wait for the send to release the emitter.
+         */
+        void abortSend(long stalledSendStartedAt) {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            Thread sender = sendingThread;
+            if (sender != null && sendStartedAt == stalledSendStartedAt) {
+                sender.interrupt();
+            }
+        }
+
+        void close(Throwable error) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            if (sendStartedAt == 0) {
+                completeEmitter(error);
+            }
+        }
+
+        private void completeEmitter(Throwable error) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (error != null) {
+                    emitter.completeWithError(error);
+                } else {
+                    emitter.complete();
+                }
+            } catch (Exception ignored) {
+                // Emitter already completed
+            }
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.inventory.service;
 
 import com.inventory.entity.Item;
 import com.inventory.entity.PurchaseOrder;
+import com.inventory.event.PurchaseOrderChangedEvent;
 import com.inventory.repository.ItemRepository;
 import com.inventory.repository.PurchaseOrderRepository;
 import com.inventory.dto.PurchaseOrderRequest;
 import com.inventory.dto.PurchaseOrderResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,12 @@ public class PurchaseOrderService {
     @Autowired
     private AlertService alertService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StockoutForecastService stockoutForecastService;
+
     @Transactional(readOnly = true)
     public List<PurchaseOrderResponse> getPurchaseOrdersByItem(Long itemId) {
         Item item = itemRepository.findById(itemId)
@@ -72,6 +80,8 @@ public class PurchaseOrderService {
         // Check for alerts
         alertService.checkAndCreateSafetyStockAlert(item);
 
+        publishChange(savedPO);
+
         return convertToResponse(savedPO);
     }
 
@@ -96,6 +106,7 @@ public class PurchaseOrderService {
         // Add to current inventory
         Item item = purchaseOrder.getItem();
         item.setCurrentInventory(item.getCurrentInventory() + purchaseOrder.getQuantity());
+        stockoutForecastService.recordLeadTime(item, purchaseOrder);
         itemRepository.save(item);
 
         // Update item's pending PO count
@@ -104,6 +115,8 @@ public class PurchaseOrderService {
         // Check for alerts
         alertService.checkAndCreateSafetyStockAlert(item);
 
+        publishChange(savedPO);
+
         return convertToResponse(savedPO);
     }
 
@@ -139,9 +152,16 @@ public class PurchaseOrderService {
         // Check for alerts
         alertService.checkAndCreateSafetyStockAlert(purchaseOrder.getItem());
 
+        publishChange(savedPO);
+
         return convertToResponse(savedPO);
     }
 
+    private void publishChange(PurchaseOrder purchaseOrder) {
+        Item item = purchaseOrder.getItem();
+        eventPublisher.publishEvent(new PurchaseOrderChangedEvent(purchaseOrder.getId(), item.getId(), item.getDepartment()));
+    }
+
     @Transactional
     public void updateItemPendingPO(Item item) {
         Integer totalPending = purchaseOrderRepository.getTotalPendingQuantityForItem(item);
@@ -0,0 +1,120 @@
+package com.inventory.service;
+
+import com.inventory.dto.QuickStatsDto;
+import com.inventory.event.ItemChangedEvent;
+import com.inventory.event.PurchaseOrderChangedEvent;
+import com.inventory.event.UsageRecordedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-department cache of the quick stats dashboard.
+ * Entries live for a short TTL and are dropped as soon as a committed usage, purchase order or item
+ * change touches the department. Concurrent requests for a missing entry share one computation.
+ */
+@Service
+public class QuickStatsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuickStatsCache.class);
+
+    // Cache key of the all-departments view
+    private static final String ALL_DEPARTMENTS = "";
+
+    @Autowired
+    private StatsService statsService;
+
+    @Value("${app.stats.quick-stats.cache-ttl-ms:15000}")
+    private long ttlMs;
+
+    private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    private static class CacheEntry {
+        final CompletableFuture<QuickStatsDto> stats = new CompletableFuture<>();
+        final long createdAt = System.currentTimeMillis();
+
+        boolean isExpired(long now, long ttlMs) {
+            return now - createdAt > ttlMs;
+        }
+    }
+
+    /**
+     * Get quick stats for a department (null / empty = all departments), computing them at most once per TTL
+     */
+    public QuickStatsDto getQuickStats(String department) {
+        String key = cacheKey(department);
+        while (true) {
+            CacheEntry current = entries.get(key);
+            if (current != null && !current.isExpired(System.currentTimeMillis(), ttlMs)) {
+                return current.stats.join();
+            }
+
+            CacheEntry fresh = new CacheEntry();
+            boolean claimed = current == null
+                ? entries.putIfAbsent(key, fresh) == null
+                : entries.replace(key, current, fresh);
+            if (!claimed) {
+                continue; // another request started the computation, wait for it instead
+            }
+
+            try {
+                QuickStatsDto stats = statsService.getQuickStatsByDepartment(key.isEmpty() ? null : key);
+                fresh.stats.complete(stats);
+                if (!stats.getUnavailableSections().isEmpty()) {
+                    // Don't keep serving a partial dashboard for the whole TTL
+                    entries.remove(key, fresh);
+                }
+                return stats;
+            } catch (RuntimeException e) {
+                entries.remove(key, fresh);
+                fresh.stats.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsageRecorded(UsageRecordedEvent event) {
+        evictDepartment(event.getItemDepartment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseOrderChanged(PurchaseOrderChangedEvent event) {
+        evictDepartment(event.getItemDepartment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        evictDepartment(event.getDepartment());
+        if (!Objects.equals(event.getDepartment(), event.getPreviousDepartment())) {
+            evictDepartment(event.getPreviousDepartment());
+        }
+    }
+
+    /**
+     * Drop the cached stats a change to an item of this department can affect.
+     * Public items count towards every department, so a public item change clears everything.
+     */
+    public void evictDepartment(String department) {
+        String key = cacheKey(department);
+        if (key.isEmpty()) {
+            entries.clear();
+        } else {
+            entries.remove(key);
+            entries.remove(ALL_DEPARTMENTS);
+        }
+        logger.debug("Quick stats cache evicted for department '{}'", key);
+    }
+
+    private String cacheKey(String department) {
+        return department != null ? department.trim() : ALL_DEPARTMENTS;
+    }
+}
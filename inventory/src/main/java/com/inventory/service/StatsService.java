@@ -3,19 +3,42 @@ package com.inventory.service;
 import com.inventory.dto.*;
 import com.inventory.entity.Item;
 import com.inventory.repository.ItemRepository;
+import com.inventory.repository.UsageDailyRollupRepository;
+import com.inventory.repository.UsageHourlyRollupRepository;
 import com.inventory.repository.UsageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,73 +49,72 @@ public class StatsService {
     @Autowired
     private UsageRepository usageRepository;
 
+    @Autowired
+    private UsageDailyRollupRepository usageDailyRollupRepository;
+
+    @Autowired
+    private UsageHourlyRollupRepository usageHourlyRollupRepository;
+
+    @Autowired
+    private UsageRollupService usageRollupService;
+
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private TopUsageTracker topUsageTracker;
+
+    @Autowired
+    private ItemSnapshotService itemSnapshotService;
+
     @Autowired
     private AdminSettingsService adminSettingsService;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.stats.quick-stats.threads:4}")
+    private int quickStatsThreads;
+
+    @Value("${app.stats.quick-stats.queue-capacity:100}")
+    private int quickStatsQueueCapacity;
+
+    @Value("${app.stats.quick-stats.query-timeout-ms:3000}")
+    private long quickStatsQueryTimeoutMs;
+
+    // Bounded pool for the quick stats fan-out; when the queue is full a panel is rejected and reported unavailable
+    private ThreadPoolExecutor quickStatsExecutor;
+
+    @PostConstruct
+    void startQuickStatsExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        quickStatsExecutor = new ThreadPoolExecutor(
+            quickStatsThreads, quickStatsThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(quickStatsQueueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "quick-stats-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        quickStatsExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stopQuickStatsExecutor() {
+        quickStatsExecutor.shutdownNow();
+    }
+
     /**
      * Get daily usage statistics for the last N days
      */
     public List<DailyUsageDto> getDailyUsage(int days) {
         try {
-            LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-            logger.info("Getting daily usage stats from: {}", startDate);
-            
-            List<Object[]> results = usageRepository.getDailyUsageStats(startDate);
-            logger.info("Raw query returned {} results", results != null ? results.size() : 0);
+            LocalDate startDay = LocalDate.now().minusDays(days);
+            logger.info("Getting daily usage stats from: {}", startDay);
             
-            List<DailyUsageDto> dailyUsage = new ArrayList<>();
-            
-            if (results != null) {
-                for (Object[] result : results) {
-                    if (result != null && result.length >= 2) {
-                        logger.debug("Processing result: {} (type: {}), {} (type: {})", 
-                            result[0], result[0] != null ? result[0].getClass().getSimpleName() : "null",
-                            result[1], result[1] != null ? result[1].getClass().getSimpleName() : "null");
-                        
-                        try {
-                            // Handle different possible date types from native query
-                            LocalDate date = null;
-                            if (result[0] instanceof LocalDate) {
-                                date = (LocalDate) result[0];
-                            } else if (result[0] instanceof java.sql.Date) {
-                                date = ((java.sql.Date) result[0]).toLocalDate();
-                            } else if (result[0] instanceof java.util.Date) {
-                                date = new java.sql.Date(((java.util.Date) result[0]).getTime()).toLocalDate();
-                            } else if (result[0] != null) {
-                                // Try to parse as string
-                                date = LocalDate.parse(result[0].toString());
-                            }
-                            
-                            // Handle different possible number types
-                            Long usage = null;
-                            if (result[1] instanceof Long) {
-                                usage = (Long) result[1];
-                            } else if (result[1] instanceof Integer) {
-                                usage = ((Integer) result[1]).longValue();
-                            } else if (result[1] instanceof java.math.BigDecimal) {
-                                usage = ((java.math.BigDecimal) result[1]).longValue();
-                            } else if (result[1] instanceof java.math.BigInteger) {
-                                usage = ((java.math.BigInteger) result[1]).longValue();
-                            } else if (result[1] != null) {
-                                usage = Long.valueOf(result[1].toString());
-                            }
-                            
-                            if (date != null && usage != null) {
-                                DailyUsageDto dto = new DailyUsageDto(date, usage);
-                                dailyUsage.add(dto);
-                                logger.debug("Added daily usage: {} -> {}", date, usage);
-                            } else {
-                                logger.warn("Skipping result with null date or usage: date={}, usage={}", date, usage);
-                            }
-                        } catch (Exception e) {
-                            logger.warn("Error processing daily usage result: {}", e.getMessage());
-                        }
-                    }
-                }
-            }
+            List<Object[]> results = usageDailyRollupRepository.getDailyTotals(startDay, LocalDate.now());
+            List<DailyUsageDto> dailyUsage = toDailyUsageDtos(results);
             
             logger.info("Returning {} daily usage records", dailyUsage.size());
             return dailyUsage;
@@ -103,62 +125,35 @@ public class StatsService {
     }
 
     /**
-     * Get daily usage statistics for a specific date range
+     * Get daily usage statistics for a specific date range, in the zone usage times are recorded in
      */
     public List<DailyUsageDto> getDailyUsageFiltered(LocalDate startDate, LocalDate endDate) {
+        return getDailyUsageFiltered(startDate, endDate, usageRollupService.getSourceZone());
+    }
+
+    /**
+     * Get daily usage statistics for a specific date range, with days taken in the given time zone.
+     * Days are folded from the UTC hourly rollup; in zones with a 30 / 45 minute offset each hour
+     * is counted on the day its start falls on.
+     */
+    public List<DailyUsageDto> getDailyUsageFiltered(LocalDate startDate, LocalDate endDate, ZoneId zone) {
         try {
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-            logger.info("Getting filtered daily usage stats from: {} to {}", startDateTime, endDateTime);
-            
-            List<Object[]> results = usageRepository.getDailyUsageStatsFiltered(startDateTime, endDateTime);
-            logger.info("Filtered query returned {} results", results != null ? results.size() : 0);
-            
-            List<DailyUsageDto> dailyUsage = new ArrayList<>();
-            
-            if (results != null) {
-                for (Object[] result : results) {
-                    if (result != null && result.length >= 2) {
-                        try {
-                            // Handle different possible date types from native query
-                            LocalDate date = null;
-                            if (result[0] instanceof LocalDate) {
-                                date = (LocalDate) result[0];
-                            } else if (result[0] instanceof java.sql.Date) {
-                                date = ((java.sql.Date) result[0]).toLocalDate();
-                            } else if (result[0] instanceof java.util.Date) {
-                                date = new java.sql.Date(((java.util.Date) result[0]).getTime()).toLocalDate();
-                            } else if (result[0] != null) {
-                                date = LocalDate.parse(result[0].toString());
-                            }
-                            
-                            // Handle different possible number types
-                            Long usage = null;
-                            if (result[1] instanceof Long) {
-                                usage = (Long) result[1];
-                            } else if (result[1] instanceof Integer) {
-                                usage = ((Integer) result[1]).longValue();
-                            } else if (result[1] instanceof java.math.BigDecimal) {
-                                usage = ((java.math.BigDecimal) result[1]).longValue();
-                            } else if (result[1] instanceof java.math.BigInteger) {
-                                usage = ((java.math.BigInteger) result[1]).longValue();
-                            } else if (result[1] != null) {
-                                usage = Long.valueOf(result[1].toString());
-                            }
-                            
-                            if (date != null && usage != null) {
-                                DailyUsageDto dto = new DailyUsageDto(date, usage);
-                                dailyUsage.add(dto);
-                                logger.debug("Added filtered daily usage: {} -> {}", date, usage);
-                            } else {
-                                logger.warn("Skipping result with null date or usage: date={}, usage={}", date, usage);
-                            }
-                        } catch (Exception e) {
-                            logger.warn("Error processing filtered daily usage result: {}", e.getMessage());
-                        }
-                    }
+            logger.info("Getting filtered daily usage stats from: {} to {} in {}", startDate, endDate, zone);
+            
+            LocalDateTime startHourUtc = LocalDateTime.ofInstant(
+                startDate.atStartOfDay(zone).toInstant(), ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime endHourUtc = LocalDateTime.ofInstant(
+                endDate.plusDays(1).atStartOfDay(zone).toInstant(), ZoneOffset.UTC);
+            
+            Map<LocalDate, Long> totalsByDay = new TreeMap<>();
+            for (Object[] row : usageHourlyRollupRepository.getHourlyTotals(startHourUtc, endHourUtc)) {
+                LocalDate day = ((LocalDateTime) row[0]).atOffset(ZoneOffset.UTC).atZoneSameInstant(zone).toLocalDate();
+                if (!day.isBefore(startDate) && !day.isAfter(endDate)) {
+                    totalsByDay.merge(day, ((Number) row[1]).longValue(), Long::sum);
                 }
             }
+            List<DailyUsageDto> dailyUsage = new ArrayList<>();
+            totalsByDay.forEach((day, total) -> dailyUsage.add(new DailyUsageDto(day, total)));
             
             logger.info("Returning {} filtered daily usage records", dailyUsage.size());
             return dailyUsage;
@@ -168,13 +163,29 @@ public class StatsService {
         }
     }
 
+    /**
+     * Convert (day, total quantity) rollup rows into DTOs
+     */
+    private List<DailyUsageDto> toDailyUsageDtos(List<Object[]> results) {
+        List<DailyUsageDto> dailyUsage = new ArrayList<>();
+        if (results == null) {
+            return dailyUsage;
+        }
+        for (Object[] result : results) {
+            if (result != null && result.length >= 2 && result[0] != null && result[1] != null) {
+                dailyUsage.add(new DailyUsageDto((LocalDate) result[0], ((Number) result[1]).longValue()));
+            }
+        }
+        return dailyUsage;
+    }
+
     /**
      * Get top N most used items
      */
     public List<TopUsageItemDto> getTopUsageItems(int limit) {
         try {
             Pageable pageable = PageRequest.of(0, limit);
-            List<Object[]> results = usageRepository.getTopUsageItems(pageable);
+            List<Object[]> results = usageDailyRollupRepository.getTopUsageItems(pageable);
             
             if (results == null || results.isEmpty()) {
                 return new ArrayList<>();
@@ -221,12 +232,10 @@ public class StatsService {
      */
     public List<TopUsageItemDto> getTopUsageItemsFiltered(int limit, LocalDate startDate, LocalDate endDate) {
         try {
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-            logger.info("Getting filtered top usage items from: {} to {}", startDateTime, endDateTime);
+            logger.info("Getting filtered top usage items from: {} to {}", startDate, endDate);
             
             Pageable pageable = PageRequest.of(0, limit);
-            List<Object[]> results = usageRepository.getTopUsageItemsFiltered(pageable, startDateTime, endDateTime);
+            List<Object[]> results = usageDailyRollupRepository.getTopUsageItemsBetween(pageable, startDate, endDate);
             
             if (results == null || results.isEmpty()) {
                 return new ArrayList<>();
@@ -269,12 +278,24 @@ public class StatsService {
         }
     }
 
+    /**
+     * Get top N most used items over a recent window (1 = today, 7 = this week) from the in-memory tracker
+     */
+    public List<TopUsageItemDto> getRecentTopUsageItems(int limit, int days, String department) {
+        try {
+            return topUsageTracker.getTopItems(department, days, limit);
+        } catch (Exception e) {
+            logger.error("Error getting recent top usage items", e);
+            return new ArrayList<>();
+        }
+    }
+
     /**
      * Get items that are above safety stock but at or below 110% of safety stock (early warning)
      */
     public List<LowStockItemDto> getLowStockItems() {
         try {
-            List<Item> items = itemRepository.findLowStockItems();
+            List<Item> items = findItemsInOrder(itemSnapshotService.findLowStockItemIds(null));
             
             if (items == null) {
                 return new ArrayList<>();
@@ -305,11 +326,7 @@ public class StatsService {
             int warningThreshold = adminSettingsService.getWarningThreshold();
             int criticalThreshold = adminSettingsService.getCriticalThreshold();
             
-            List<Item> items = itemRepository.findStockAlertItems(warningThreshold);
-            
-            if (items == null) {
-                return new ArrayList<>();
-            }
+            List<Item> items = findItemsInOrder(itemSnapshotService.findStockAlertItemIds(null, warningThreshold));
             
             return items.stream()
                 .filter(item -> item != null)
@@ -338,74 +355,139 @@ public class StatsService {
     }
     
     /**
-     * Get comprehensive quick stats for dashboard filtered by department
+     * Get comprehensive quick stats for dashboard filtered by department.
+     * The panels are queried concurrently; a panel that fails or exceeds the per-query timeout
+     * is left empty and listed in unavailableSections instead of failing the whole response.
      */
     public QuickStatsDto getQuickStatsByDepartment(String department) {
+        QuickStatsDto stats = emptyQuickStats();
+        
+        // Set the department for context
+        stats.setDepartment(department);
+        
         try {
-            QuickStatsDto stats = new QuickStatsDto();
-            
-            // Set the department for context
-            stats.setDepartment(department);
-            
-            // Get daily usage for last 7 days
-            stats.setDailyUsage(getDailyUsageByDepartment(7, department));
-            
-            // Get top 5 usage items
-            stats.setTopUsageItems(getTopUsageItemsByDepartment(5, department));
-            
-            // Get low stock items
-            stats.setLowStockItems(getLowStockItemsByDepartment(department));
-            
-            // Get stock alerts
-            stats.setStockAlerts(getStockAlertsByDepartment(department));
+            // Read the configurable thresholds once for both the alert and inventory panels
+            int warningThreshold = adminSettingsService.getWarningThreshold();
+            int criticalThreshold = adminSettingsService.getCriticalThreshold();
             
-            // Get general inventory statistics using configurable thresholds
-            try {
-                int warningThreshold = adminSettingsService.getWarningThreshold();
-                int criticalThreshold = adminSettingsService.getCriticalThreshold();
-                
-                Object[] inventoryStats = getInventoryStatisticsByDepartment(department, warningThreshold, criticalThreshold);
-                if (inventoryStats != null && inventoryStats.length >= 5) {
-                    if (inventoryStats[0] != null) stats.setTotalItems(((Long) inventoryStats[0]).intValue());
-                    if (inventoryStats[1] != null) stats.setTotalQuantity(((Long) inventoryStats[1]).intValue());
-                    if (inventoryStats[2] != null) stats.setAverageQuantity(((Double) inventoryStats[2]).doubleValue());
-                    if (inventoryStats[3] != null) stats.setItemsBelowSafetyStock(((Long) inventoryStats[3]).intValue());
-                    if (inventoryStats[4] != null) stats.setCriticalStockItems(((Long) inventoryStats[4]).intValue());
-                }
-            } catch (Exception e) {
-                logger.warn("Error getting inventory statistics, using defaults", e);
-                // Set default values if inventory statistics fail
-                stats.setTotalItems(0);
-                stats.setTotalQuantity(0);
-                stats.setAverageQuantity(0.0);
-                stats.setItemsBelowSafetyStock(0);
-                stats.setCriticalStockItems(0);
-            }
+            Map<String, Long> timings = new ConcurrentHashMap<>();
+            long startedAt = System.nanoTime();
+            long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(quickStatsQueryTimeoutMs);
+            
+            // The panels use the throwing loaders so a failed query shows up in unavailableSections
+            Future<List<DailyUsageDto>> dailyUsage = submitTimed("dailyUsage", timings,
+                () -> loadDailyUsage(7, department));
+            Future<List<TopUsageItemDto>> topUsageItems = submitTimed("topUsageItems", timings,
+                () -> loadTopUsageItems(5, department));
+            Future<List<LowStockItemDto>> lowStockItems = submitTimed("lowStockItems", timings,
+                () -> loadLowStockItems(department));
+            Future<List<StockAlertDto>> stockAlerts = submitTimed("stockAlerts", timings,
+                () -> loadStockAlerts(department, warningThreshold, criticalThreshold));
+            Future<Object[]> inventoryStats = submitTimed("inventoryStatistics", timings,
+                () -> itemSnapshotService.getInventoryStatistics(department, warningThreshold, criticalThreshold));
+            
+            stats.setDailyUsage(awaitSection("dailyUsage", dailyUsage, deadline, stats, stats.getDailyUsage()));
+            stats.setTopUsageItems(awaitSection("topUsageItems", topUsageItems, deadline, stats, stats.getTopUsageItems()));
+            stats.setLowStockItems(awaitSection("lowStockItems", lowStockItems, deadline, stats, stats.getLowStockItems()));
+            stats.setStockAlerts(awaitSection("stockAlerts", stockAlerts, deadline, stats, stats.getStockAlerts()));
+            applyInventoryStatistics(stats, awaitSection("inventoryStatistics", inventoryStats, deadline, stats, null));
+            // In-memory count, no query to fan out
+            stats.setItemsByCategory(itemSnapshotService.countByCategory(department));
+            
+            stats.setQueryTimingsMs(new LinkedHashMap<>(timings));
+            logger.info("Quick stats for department {} built in {} ms, per query: {}{}",
+                department != null ? department : "(all)",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+                timings,
+                stats.getUnavailableSections().isEmpty() ? "" : ", unavailable: " + stats.getUnavailableSections());
             
             return stats;
         } catch (Exception e) {
             logger.error("Error getting quick stats for department: {}", department, e);
             // Return empty stats rather than throwing exception
-            QuickStatsDto emptyStats = new QuickStatsDto();
-            emptyStats.setDailyUsage(new ArrayList<>());
-            emptyStats.setTopUsageItems(new ArrayList<>());
-            emptyStats.setLowStockItems(new ArrayList<>());
-            emptyStats.setStockAlerts(new ArrayList<>());
-            emptyStats.setTotalItems(0);
-            emptyStats.setTotalQuantity(0);
-            emptyStats.setAverageQuantity(0.0);
-            emptyStats.setItemsBelowSafetyStock(0);
-            emptyStats.setCriticalStockItems(0);
-            return emptyStats;
+            return emptyQuickStats();
+        }
+    }
+    
+    private QuickStatsDto emptyQuickStats() {
+        QuickStatsDto emptyStats = new QuickStatsDto();
+        emptyStats.setDailyUsage(new ArrayList<>());
+        emptyStats.setTopUsageItems(new ArrayList<>());
+        emptyStats.setLowStockItems(new ArrayList<>());
+        emptyStats.setStockAlerts(new ArrayList<>());
+        emptyStats.setTotalItems(0);
+        emptyStats.setTotalQuantity(0);
+        emptyStats.setAverageQuantity(0.0);
+        emptyStats.setItemsBelowSafetyStock(0);
+        emptyStats.setCriticalStockItems(0);
+        return emptyStats;
+    }
+    
+    private void applyInventoryStatistics(QuickStatsDto stats, Object[] inventoryStats) {
+        if (inventoryStats != null && inventoryStats.length >= 5) {
+            if (inventoryStats[0] != null) stats.setTotalItems(((Long) inventoryStats[0]).intValue());
+            if (inventoryStats[1] != null) stats.setTotalQuantity(((Long) inventoryStats[1]).intValue());
+            if (inventoryStats[2] != null) stats.setAverageQuantity(((Double) inventoryStats[2]).doubleValue());
+            if (inventoryStats[3] != null) stats.setItemsBelowSafetyStock(((Long) inventoryStats[3]).intValue());
+            if (inventoryStats[4] != null) stats.setCriticalStockItems(((Long) inventoryStats[4]).intValue());
+        }
+    }
+    
+    /**
+     * Run one quick stats query on the stats pool and record how long it took.
+     * The query runs in a read-only transaction whose timeout becomes the JDBC query timeout, so a query
+     * past the deadline is stopped by the database rather than left running after future.cancel.
+     * A panel rejected by the full pool comes back as a failed future.
+     */
+    private <T> Future<T> submitTimed(String section, Map<String, Long> timings, Supplier<T> query) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(quickStatsQueryTimeoutMs + 999)));
+        try {
+            return quickStatsExecutor.submit(() -> {
+                long queryStartedAt = System.nanoTime();
+                try {
+                    return readOnly.execute(status -> query.get());
+                } finally {
+                    timings.put(section, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queryStartedAt));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
+    
+    /**
+     * Wait for one quick stats query until the shared deadline; on failure or timeout keep the
+     * fallback value and report the section as unavailable
+     */
+    private <T> T awaitSection(String section, Future<T> future, long deadline, QuickStatsDto stats, T fallback) {
+        try {
+            T result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return result != null ? result : fallback;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("Quick stats query '{}' exceeded {} ms", section, quickStatsQueryTimeoutMs);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                logger.warn("Quick stats pool is saturated, skipped query '{}'", section);
+            } else {
+                logger.warn("Quick stats query '{}' failed", section, e.getCause());
+            }
+        }
+        stats.getUnavailableSections().add(section);
+        return fallback;
+    }
 
     /**
      * Get usage statistics by department
      */
     public List<Object[]> getUsageByDepartment() {
         try {
-            return usageRepository.getUsageByDepartment();
+            return usageDailyRollupRepository.getUsageByDepartment();
         } catch (Exception e) {
             logger.error("Error getting usage by department", e);
             return new ArrayList<>();
@@ -430,94 +512,80 @@ public class StatsService {
      * Get daily usage filtered by department
      */
     public List<DailyUsageDto> getDailyUsageByDepartment(int days, String department) {
-        if (department == null || department.trim().isEmpty()) {
-            return getDailyUsage(days); // Return all if no department specified
-        }
-        
         try {
-            LocalDateTime startDate = LocalDateTime.now().minusDays(days).withHour(0).withMinute(0).withSecond(0);
-            List<Object[]> results = usageRepository.getDailyUsageByDepartment(startDate, department);
-            
-            if (results == null) {
-                return new ArrayList<>();
-            }
-            
-            return results.stream()
-                .filter(result -> result != null && result.length >= 2)
-                .map(result -> {
-                    LocalDate date = ((java.sql.Date) result[0]).toLocalDate();
-                    // Handle different possible number types from database
-                    Long quantity;
-                    if (result[1] instanceof BigDecimal) {
-                        quantity = ((BigDecimal) result[1]).longValue();
-                    } else if (result[1] instanceof Long) {
-                        quantity = (Long) result[1];
-                    } else if (result[1] instanceof Integer) {
-                        quantity = ((Integer) result[1]).longValue();
-                    } else if (result[1] != null) {
-                        quantity = Long.valueOf(result[1].toString());
-                    } else {
-                        quantity = 0L;
-                    }
-                    return new DailyUsageDto(date, quantity);
-                })
-                .collect(Collectors.toList());
+            return loadDailyUsage(days, department);
         } catch (Exception e) {
             logger.error("Error getting daily usage by department: {}", department, e);
             return new ArrayList<>();
         }
     }
     
+    /**
+     * Daily usage for the last N days, all departments when department is null / empty; throws on failure
+     */
+    private List<DailyUsageDto> loadDailyUsage(int days, String department) {
+        LocalDate startDay = LocalDate.now().minusDays(days);
+        List<Object[]> results = department == null || department.trim().isEmpty()
+            ? usageDailyRollupRepository.getDailyTotals(startDay, LocalDate.now())
+            : usageDailyRollupRepository.getDailyTotalsByDepartment(department.trim(), startDay, LocalDate.now());
+        return toDailyUsageDtos(results);
+    }
+    
     /**
      * Get top usage items filtered by department
      */
     public List<TopUsageItemDto> getTopUsageItemsByDepartment(int limit, String department) {
-        if (department == null || department.trim().isEmpty()) {
-            return getTopUsageItems(limit); // Return all if no department specified
+        try {
+            return loadTopUsageItems(limit, department);
+        } catch (Exception e) {
+            logger.error("Error getting top usage items by department: {}", department, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Top N items by usage, all departments when department is null / empty; throws on failure
+     */
+    private List<TopUsageItemDto> loadTopUsageItems(int limit, String department) {
+        Pageable pageable = PageRequest.of(0, limit);
+        List<Object[]> results = department == null || department.trim().isEmpty()
+            ? usageDailyRollupRepository.getTopUsageItems(pageable)
+            : usageDailyRollupRepository.getTopUsageItemsByDepartment(pageable, department.trim());
+        
+        if (results == null || results.isEmpty()) {
+            return new ArrayList<>();
         }
         
-        try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Object[]> results = usageRepository.getTopUsageItemsByDepartment(pageable, department);
-            
-            if (results == null || results.isEmpty()) {
-                return new ArrayList<>();
-            }
-            
-            // Calculate total usage for percentage calculation
-            long totalUsage = results.stream()
-                .filter(result -> result != null && result.length >= 4 && result[3] != null)
-                .mapToLong(result -> ((Long) result[3]))
-                .sum();
-            
-            List<TopUsageItemDto> topItems = new ArrayList<>();
-            
-            for (Object[] result : results) {
-                if (result != null && result.length >= 4) {
-                    Long id = (Long) result[0];
-                    String name = (String) result[1];
-                    String code = (String) result[2];
-                    Long itemUsage = (Long) result[3];
+        // Calculate total usage for percentage calculation
+        long totalUsage = results.stream()
+            .filter(result -> result != null && result.length >= 4 && result[3] != null)
+            .mapToLong(result -> ((Long) result[3]))
+            .sum();
+        
+        List<TopUsageItemDto> topItems = new ArrayList<>();
+        
+        for (Object[] result : results) {
+            if (result != null && result.length >= 4) {
+                Long id = (Long) result[0];
+                String name = (String) result[1];
+                String code = (String) result[2];
+                Long itemUsage = (Long) result[3];
+                
+                if (id != null && name != null && code != null && itemUsage != null) {
+                    TopUsageItemDto dto = new TopUsageItemDto(id, name, code, itemUsage);
                     
-                    if (id != null && name != null && code != null && itemUsage != null) {
-                        TopUsageItemDto dto = new TopUsageItemDto(id, name, code, itemUsage);
-                        
-                        // Calculate percentage
-                        if (totalUsage > 0) {
-                            int percentage = (int) Math.round((double) itemUsage / totalUsage * 100);
-                            dto.setPercentage(percentage);
-                        }
-                        
-                        topItems.add(dto);
+                    // Calculate percentage
+                    if (totalUsage > 0) {
+                        int percentage = (int) Math.round((double) itemUsage / totalUsage * 100);
+                        dto.setPercentage(percentage);
                     }
+                    
+                    topItems.add(dto);
                 }
             }
-            
-            return topItems;
-        } catch (Exception e) {
-            logger.error("Error getting top usage items by department: {}", department, e);
-            return new ArrayList<>();
         }
+        
+        return topItems;
     }
     
     /**
@@ -525,33 +593,31 @@ public class StatsService {
      */
     public List<LowStockItemDto> getLowStockItemsByDepartment(String department) {
         try {
-            List<Item> items;
-            if (department == null || department.trim().isEmpty()) {
-                items = itemRepository.findLowStockItems(); // All departments
-            } else {
-                items = itemRepository.findLowStockItemsByDepartment(department);
-            }
-            
-            if (items == null) {
-                return new ArrayList<>();
-            }
-            
-            return items.stream()
-                .filter(item -> item != null)
-                .map(item -> new LowStockItemDto(
-                    item.getId(),
-                    item.getName(),
-                    item.getCode(),
-                    item.getCurrentInventory(),
-                    item.getSafetyStockThreshold()
-                ))
-                .collect(Collectors.toList());
+            return loadLowStockItems(department);
         } catch (Exception e) {
             logger.error("Error getting low stock items by department: {}", department, e);
             return new ArrayList<>();
         }
     }
     
+    /**
+     * Low stock items, all departments when department is null / empty; throws on failure
+     */
+    private List<LowStockItemDto> loadLowStockItems(String department) {
+        List<Item> items = findItemsInOrder(itemSnapshotService.findLowStockItemIds(department));
+        
+        return items.stream()
+            .filter(item -> item != null)
+            .map(item -> new LowStockItemDto(
+                item.getId(),
+                item.getName(),
+                item.getCode(),
+                item.getCurrentInventory(),
+                item.getSafetyStockThreshold()
+            ))
+            .collect(Collectors.toList());
+    }
+    
     /**
      * Get stock alerts filtered by department
      */
@@ -560,31 +626,19 @@ public class StatsService {
             // Get configurable thresholds
             int warningThreshold = adminSettingsService.getWarningThreshold();
             int criticalThreshold = adminSettingsService.getCriticalThreshold();
-            
-            List<Item> items;
-            if (department == null || department.trim().isEmpty()) {
-                items = itemRepository.findStockAlertItems(warningThreshold); // All departments
-            } else {
-                items = itemRepository.findCriticalStockItemsByDepartment(department, warningThreshold);
-            }
-            
-            if (items == null) {
-                return new ArrayList<>();
-            }
-            
-            return items.stream()
-                .filter(item -> item != null)
-                .map(item -> new StockAlertDto(
-                    item.getId(),
-                    item.getName(),
-                    item.getCode(),
-                    item.getCurrentInventory(),
-                    item.getSafetyStockThreshold(),
-                    criticalThreshold,
-                    warningThreshold
-                ))
-                .filter(alert -> alert != null && !"normal".equals(alert.getAlertType())) // Only include alerts
-                .collect(Collectors.toList());
+            return getStockAlertsByDepartment(department, warningThreshold, criticalThreshold);
+        } catch (Exception e) {
+            logger.error("Error getting stock alerts by department: {}", department, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get stock alerts filtered by department using thresholds the caller has already read
+     */
+    public List<StockAlertDto> getStockAlertsByDepartment(String department, int warningThreshold, int criticalThreshold) {
+        try {
+            return loadStockAlerts(department, warningThreshold, criticalThreshold);
         } catch (Exception e) {
             logger.error("Error getting stock alerts by department: {}", department, e);
             return new ArrayList<>();
@@ -592,18 +646,51 @@ public class StatsService {
     }
     
     /**
-     * Get inventory statistics filtered by department
+     * Stock alerts, all departments when department is null / empty; throws on failure
+     */
+    private List<StockAlertDto> loadStockAlerts(String department, int warningThreshold, int criticalThreshold) {
+        List<Item> items = findItemsInOrder(itemSnapshotService.findStockAlertItemIds(department, warningThreshold));
+        
+        return items.stream()
+            .map(item -> new StockAlertDto(
+                item.getId(),
+                item.getName(),
+                item.getCode(),
+                item.getCurrentInventory(),
+                item.getSafetyStockThreshold(),
+                criticalThreshold,
+                warningThreshold
+            ))
+            .filter(alert -> alert != null && !"normal".equals(alert.getAlertType())) // Only include alerts
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Get inventory statistics filtered by department: a department sees its own items plus public items.
+     * Returns {item count, total quantity, average quantity, items below warning, items below critical}.
      */
     public Object[] getInventoryStatisticsByDepartment(String department, int warningThreshold, int criticalThreshold) {
         try {
-            if (department == null || department.trim().isEmpty()) {
-                return itemRepository.getInventoryStatistics(warningThreshold, criticalThreshold);
-            } else {
-                return itemRepository.getInventoryStatisticsByDepartment(department, warningThreshold, criticalThreshold);
-            }
+            return itemSnapshotService.getInventoryStatistics(department, warningThreshold, criticalThreshold);
         } catch (Exception e) {
             logger.error("Error getting inventory statistics by department: {}", department, e);
             return new Object[]{0L, 0L, 0.0, 0L, 0L}; // Return default empty stats
         }
     }
+    
+    /**
+     * Load the items matched by an ItemSnapshotService scan, keeping the scan order.
+     * Items deleted since the scan are skipped.
+     */
+    private List<Item> findItemsInOrder(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Item> itemsById = itemRepository.findAllById(itemIds).stream()
+            .collect(Collectors.toMap(Item::getId, item -> item));
+        return itemIds.stream()
+            .map(itemsById::get)
+            .filter(item -> item != null)
+            .collect(Collectors.toList());
+    }
 } 
\ No newline at end of file
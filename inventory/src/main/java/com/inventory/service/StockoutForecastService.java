@@ -0,0 +1,125 @@
+package com.inventory.service;
+
+import com.inventory.entity.Item;
+import com.inventory.entity.PurchaseOrder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Days-to-stockout forecast per item, from an exponentially weighted usage rate.
+ *
+ * The rate is a decayed sum kept on the item: on each usage it is decayed by exp(-elapsed / tau) and the used
+ * quantity / tau is added, so a steady consumption of r units per day converges to r, and old usage fades
+ * with the configured half-life. Each usage and each forecast costs O(1) and never reads usage history.
+ * The PO lead time is an exponentially weighted average of the item's observed order-to-arrival times,
+ * with a configured default until the first purchase order arrives.
+ */
+@Service
+public class StockoutForecastService {
+
+    private static final double SECONDS_PER_DAY = 86400.0;
+
+    // Rates below this are treated as no consumption (no forecast)
+    private static final double MIN_USAGE_RATE_PER_DAY = 1e-6;
+
+    @Value("${app.alerts.forecast.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.alerts.forecast.usage-half-life-days:14}")
+    private double usageHalfLifeDays;
+
+    @Value("${app.alerts.forecast.default-lead-time-days:14}")
+    private double defaultLeadTimeDays;
+
+    // Weight of the newest observed lead time in the lead time average
+    @Value("${app.alerts.forecast.lead-time-weight:0.3}")
+    private double leadTimeWeight;
+
+    // An open forecast alert stays open until the days to stock-out exceed the lead time by this factor,
+    // so an item hovering around its lead time does not open and resolve an alert on every usage
+    @Value("${app.alerts.forecast.resolve-margin:1.2}")
+    private double resolveMargin;
+
+    /**
+     * Fold one usage into the item's rate; the item is saved by the caller's transaction
+     */
+    public void recordUsage(Item item, int quantity, LocalDateTime usedAt) {
+        double tau = getTimeConstantDays();
+        double rate = item.getUsageRatePerDay() != null ? item.getUsageRatePerDay() : 0;
+        LocalDateTime updatedAt = item.getUsageRateUpdatedAt();
+        if (updatedAt == null || !usedAt.isBefore(updatedAt)) {
+            double decay = updatedAt != null ? Math.exp(-daysBetween(updatedAt, usedAt) / tau) : 0;
+            item.setUsageRatePerDay(rate * decay + quantity / tau);
+            item.setUsageRateUpdatedAt(usedAt);
+        } else {
+            // Late (backdated) usage: add its contribution as already decayed to the rate's timestamp
+            item.setUsageRatePerDay(rate + quantity / tau * Math.exp(-daysBetween(usedAt, updatedAt) / tau));
+        }
+    }
+
+    /**
+     * Fold an arrived purchase order's order-to-arrival time into the item's lead time
+     */
+    public void recordLeadTime(Item item, PurchaseOrder purchaseOrder) {
+        if (purchaseOrder.getOrderDate() == null || purchaseOrder.getArrivalDate() == null) {
+            return;
+        }
+        double observed = Math.max(0, daysBetween(purchaseOrder.getOrderDate(), purchaseOrder.getArrivalDate()));
+        Double leadTime = item.getLeadTimeDays();
+        item.setLeadTimeDays(leadTime == null ? observed : leadTime + leadTimeWeight * (observed - leadTime));
+    }
+
+    /**
+     * Usage rate in units per day, decayed to now
+     */
+    public double getUsageRatePerDay(Item item, LocalDateTime now) {
+        if (item.getUsageRatePerDay() == null || item.getUsageRateUpdatedAt() == null) {
+            return 0;
+        }
+        double elapsed = Math.max(0, daysBetween(item.getUsageRateUpdatedAt(), now));
+        return item.getUsageRatePerDay() * Math.exp(-elapsed / getTimeConstantDays());
+    }
+
+    public double getLeadTimeDays(Item item) {
+        return item.getLeadTimeDays() != null ? item.getLeadTimeDays() : defaultLeadTimeDays;
+    }
+
+    /**
+     * Days until current plus ordered stock runs out at the current rate, or null if nothing is being used
+     */
+    public Double getDaysToStockout(Item item, LocalDateTime now) {
+        double rate = getUsageRatePerDay(item, now);
+        if (rate < MIN_USAGE_RATE_PER_DAY) {
+            return null;
+        }
+        return Math.max(0, item.getCurrentInventory() + item.getPendingPO()) / rate;
+    }
+
+    /**
+     * Whether the item needs a stock-out forecast alert: it is projected to run out before a purchase order
+     * placed now would arrive. With an alert already open the forecast holds until the days to stock-out
+     * exceed the lead time times app.alerts.forecast.resolve-margin.
+     */
+    public boolean isStockoutForecast(Item item, LocalDateTime now, boolean alertOpen) {
+        if (!enabled) {
+            return false;
+        }
+        Double daysToStockout = getDaysToStockout(item, now);
+        if (daysToStockout == null) {
+            return false;
+        }
+        double leadTime = getLeadTimeDays(item);
+        return alertOpen ? daysToStockout <= leadTime * resolveMargin : daysToStockout < leadTime;
+    }
+
+    private double getTimeConstantDays() {
+        return usageHalfLifeDays / Math.log(2);
+    }
+
+    private static double daysBetween(LocalDateTime from, LocalDateTime to) {
+        return Duration.between(from, to).getSeconds() / SECONDS_PER_DAY;
+    }
+}
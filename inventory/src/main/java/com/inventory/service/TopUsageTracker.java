@@ -0,0 +1,176 @@
+package com.inventory.service;
+
+import com.inventory.dto.TopUsageItemDto;
+import com.inventory.entity.Item;
+import com.inventory.event.ItemChangedEvent;
+import com.inventory.event.UsageRecordedEvent;
+import com.inventory.repository.ItemRepository;
+import com.inventory.repository.UsageDailyRollupRepository;
+import com.inventory.util.SpaceSavingSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory "top items today / this week" per department.
+ *
+ * One Space-Saving sketch is kept per (day, department) plus one per day across all departments, fed by
+ * usage events after commit. A window query merges the daily sketches it covers, so it never touches the
+ * database once item names are cached. Every few minutes the sketches are reset from the exact daily rollup,
+ * which bounds sketch error and picks up usage recorded by other application nodes.
+ */
+@Service
+public class TopUsageTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopUsageTracker.class);
+
+    // Longest supported window; sketches older than this are dropped
+    public static final int MAX_WINDOW_DAYS = 7;
+
+    // Sketch key for usage across all departments
+    private static final String ALL_DEPARTMENTS = "*";
+
+    @Autowired
+    private UsageDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Value("${app.stats.top-usage.sketch-capacity:128}")
+    private int sketchCapacity;
+
+    private final Map<SketchKey, SpaceSavingSketch> sketches = new ConcurrentHashMap<>();
+
+    // itemId -> {name, code}
+    private final Map<Long, String[]> itemLabels = new ConcurrentHashMap<>();
+
+    private record SketchKey(LocalDate day, String department) {
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsageRecorded(UsageRecordedEvent event) {
+        LocalDate day = event.getUsedAt() != null ? event.getUsedAt().toLocalDate() : LocalDate.now();
+        add(new SketchKey(day, ALL_DEPARTMENTS), event.getItemId(), event.getQuantityUsed());
+        add(new SketchKey(day, UsageRollupService.toRollupDepartment(event.getItemDepartment())),
+            event.getItemId(), event.getQuantityUsed());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        // Name or code may have changed; department moves are picked up by the next reconciliation
+        itemLabels.remove(event.getItemId());
+    }
+
+    private void add(SketchKey key, long itemId, long quantity) {
+        SpaceSavingSketch sketch = sketches.computeIfAbsent(key, k -> new SpaceSavingSketch(sketchCapacity));
+        synchronized (sketch) {
+            sketch.add(itemId, quantity);
+        }
+    }
+
+    /**
+     * Top items over the last {@code days} days including today (1 = today, 7 = this week).
+     * department null / empty = all departments, otherwise items of that department only.
+     */
+    public List<TopUsageItemDto> getTopItems(String department, int days, int limit) {
+        int windowDays = Math.max(1, Math.min(days, MAX_WINDOW_DAYS));
+        String sketchDepartment = department == null || department.trim().isEmpty() ? ALL_DEPARTMENTS : department.trim();
+
+        Map<Long, Long> totals = new HashMap<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < windowDays; i++) {
+            SpaceSavingSketch sketch = sketches.get(new SketchKey(today.minusDays(i), sketchDepartment));
+            if (sketch != null) {
+                synchronized (sketch) {
+                    sketch.mergeInto(totals);
+                }
+            }
+        }
+
+        List<Map.Entry<Long, Long>> top = totals.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+            .limit(limit)
+            .collect(Collectors.toList());
+        long totalUsage = top.stream().mapToLong(Map.Entry::getValue).sum();
+        loadMissingLabels(top.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+
+        List<TopUsageItemDto> topItems = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : top) {
+            String[] label = itemLabels.get(entry.getKey());
+            if (label == null) {
+                continue; // item deleted
+            }
+            TopUsageItemDto dto = new TopUsageItemDto(entry.getKey(), label[0], label[1], entry.getValue());
+            if (totalUsage > 0) {
+                dto.setPercentage((int) Math.round((double) entry.getValue() / totalUsage * 100));
+            }
+            topItems.add(dto);
+        }
+        return topItems;
+    }
+
+    private void loadMissingLabels(List<Long> itemIds) {
+        List<Long> missing = itemIds.stream().filter(id -> !itemLabels.containsKey(id)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            for (Item item : itemRepository.findAllById(missing)) {
+                itemLabels.put(item.getId(), new String[]{item.getName(), item.getCode()});
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * Reset the sketches of the tracked window from the exact usage_daily_rollup totals.
+     * Events that land between the rollup read and the swap may be missed until the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.stats.top-usage.reconcile-ms:300000}", initialDelayString = "${app.stats.top-usage.reconcile-ms:300000}")
+    public void reconcile() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            LocalDate firstDay = LocalDate.now().minusDays(MAX_WINDOW_DAYS - 1);
+
+            Map<SketchKey, Map<Long, Long>> exact = new HashMap<>();
+            for (Object[] bucket : rollupRepository.findBucketsSince(firstDay)) {
+                LocalDate day = (LocalDate) bucket[0];
+                String department = (String) bucket[1];
+                Long itemId = (Long) bucket[2];
+                long qty = ((Number) bucket[3]).longValue();
+                exact.computeIfAbsent(new SketchKey(day, department), k -> new HashMap<>()).merge(itemId, qty, Long::sum);
+                exact.computeIfAbsent(new SketchKey(day, ALL_DEPARTMENTS), k -> new HashMap<>()).merge(itemId, qty, Long::sum);
+            }
+
+            for (Map.Entry<SketchKey, Map<Long, Long>> entry : exact.entrySet()) {
+                SpaceSavingSketch sketch = new SpaceSavingSketch(sketchCapacity);
+                sketch.loadExact(entry.getValue());
+                sketches.put(entry.getKey(), sketch);
+            }
+            // Drop sketches that fell out of the window or no longer have usage (e.g. department moves)
+            LocalDate today = LocalDate.now();
+            sketches.keySet().removeIf(key -> key.day().isBefore(firstDay)
+                || (!exact.containsKey(key) && key.day().isBefore(today)));
+
+            logger.info("Top usage sketches reconciled from rollup: {} sketches in {} ms",
+                sketches.size(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            logger.error("Top usage reconciliation failed", e);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.inventory.service;
+
+import com.inventory.entity.Usage;
+import com.inventory.event.ItemChangedEvent;
+import com.inventory.repository.UsageDailyRollupRepository;
+import com.inventory.repository.UsageHourlyRollupRepository;
+import com.inventory.repository.UsageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.sql.Timestamp;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains the usage_daily_rollup and usage_hourly_rollup tables that back the usage statistics.
+ * Each usage insert adds to its day and UTC hour buckets in the same transaction; history is filled by the backfill job,
+ * whose progress is kept in usage_rollup_backfill so an interrupted backfill resumes on the next startup.
+ *
+ * used_at holds wall-clock time of app.usage-rollup.source-zone (default: the JVM zone, which writes it);
+ * the hourly buckets convert it to UTC so days can be folded for any zone at query time.
+ */
+@Service
+public class UsageRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageRollupService.class);
+
+    // Days recomputed per backfill transaction
+    private static final int BACKFILL_CHUNK_DAYS = 31;
+
+    // usage_rollup_backfill.rollup keys
+    private static final String DAILY = "daily";
+    private static final String HOURLY = "hourly";
+
+    @Autowired
+    private UsageDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private UsageHourlyRollupRepository hourlyRollupRepository;
+
+    @Autowired
+    private UsageRepository usageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.usage-rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${app.usage-rollup.source-zone:}")
+    private String sourceZoneId;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean(false);
+
+    /**
+     * Add a freshly inserted usage record to its day bucket.
+     * Must join the transaction that inserted the usage so the rollup can never drift from item_usage.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUsage(Usage usage) {
+        rollupRepository.addUsage(
+            usage.getUsedAt().toLocalDate(),
+            usage.getItem().getId(),
+            toRollupDepartment(usage.getItem().getDepartment()),
+            usage.getQuantityUsed()
+        );
+        hourlyRollupRepository.addUsage(
+            toUtcHour(usage.getUsedAt()),
+            usage.getItem().getId(),
+            usage.getQuantityUsed(),
+            1
+        );
+    }
+
+    /**
+     * Zone of the wall-clock used_at values
+     */
+    public ZoneId getSourceZone() {
+        return sourceZoneId == null || sourceZoneId.isBlank() ? ZoneId.systemDefault() : ZoneId.of(sourceZoneId);
+    }
+
+    /**
+     * Start of the UTC hour containing a used_at value
+     */
+    public LocalDateTime toUtcHour(LocalDateTime usedAt) {
+        return LocalDateTime.ofInstant(usedAt.atZone(getSourceZone()).toInstant(), ZoneOffset.UTC)
+            .truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Move an item's buckets to its new department so department stats follow the item.
+     * ItemChangedEvent is published while the item update is flushed, so this runs in the item's transaction
+     * and the buckets move (or roll back) together with the department change, whichever code saved the item.
+     */
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        String department = toRollupDepartment(event.getDepartment());
+        if (event.isRemoved() || department.equals(toRollupDepartment(event.getPreviousDepartment()))) {
+            return;
+        }
+        // Plain JDBC: a JPQL update would flush the persistence context that is being flushed
+        int updated = jdbcTemplate.update(
+            "UPDATE usage_daily_rollup SET department = ? WHERE item_id = ? AND department <> ?",
+            department, event.getItemId(), department);
+        if (updated > 0) {
+            logger.info("Moved {} usage rollup rows of item {} to department '{}'", updated, event.getItemId(), department);
+        }
+    }
+
+    /**
+     * Fill the rollup from existing usage history on startup, resuming a backfill that did not complete
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeBackfill() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            LocalDateTime earliest = usageRepository.findEarliestUsedAt();
+            if (earliest == null) {
+                return;
+            }
+            BackfillState daily = findBackfillState(DAILY);
+            if (daily == null || daily.completedAt() == null) {
+                LocalDate from = daily != null ? daily.backfilledUntil().toLocalDate() : earliest.toLocalDate();
+                logger.info("Usage rollup backfill {} from {}", daily != null ? "resuming" : "starting", from);
+                if (backfill(from, LocalDate.now()) >= 0) {
+                    completeBackfill(DAILY);
+                }
+            }
+            BackfillState hourly = findBackfillState(HOURLY);
+            if (hourly == null || hourly.completedAt() == null) {
+                // The hourly high-water mark is a UTC hour
+                Instant from = hourly != null
+                    ? hourly.backfilledUntil().toInstant(ZoneOffset.UTC)
+                    : fromDayStart(earliest.toLocalDate(), getSourceZone());
+                Instant end = fromDayStart(LocalDate.now().plusDays(1), getSourceZone()).plus(1, ChronoUnit.HOURS);
+                logger.info("Hourly usage rollup backfill {} from {}", hourly != null ? "resuming" : "starting", from);
+                if (backfillHourly(from, end) >= 0) {
+                    completeBackfill(HOURLY);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Usage rollup backfill on startup failed", e);
+        }
+    }
+
+    /**
+     * Recompute the rollup for every day in [fromDay, toDay] from item_usage.
+     * Runs in chunks of BACKFILL_CHUNK_DAYS, one transaction each that also records the progress;
+     * re-running is harmless.
+     * @return number of bucket rows written, or -1 if a backfill is already running
+     */
+    public long backfill(LocalDate fromDay, LocalDate toDay) {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            logger.warn("Usage rollup backfill already running, skipping request for {} - {}", fromDay, toDay);
+            return -1;
+        }
+        try {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            long startedAt = System.currentTimeMillis();
+            long rowsWritten = 0;
+            LocalDate chunkStart = fromDay;
+            while (!chunkStart.isAfter(toDay)) {
+                LocalDate chunkEnd = chunkStart.plusDays(BACKFILL_CHUNK_DAYS);
+                if (chunkEnd.isAfter(toDay.plusDays(1))) {
+                    chunkEnd = toDay.plusDays(1);
+                }
+                LocalDateTime start = chunkStart.atStartOfDay();
+                LocalDateTime end = chunkEnd.atStartOfDay();
+                Integer written = transactionTemplate.execute(status -> {
+                    int rows = rollupRepository.backfillRange(start, end);
+                    saveBackfillProgress(DAILY, end);
+                    return rows;
+                });
+                rowsWritten += written != null ? written : 0;
+                chunkStart = chunkEnd;
+            }
+            logger.info("Usage rollup backfill {} - {} finished: {} rows in {} ms",
+                fromDay, toDay, rowsWritten, System.currentTimeMillis() - startedAt);
+            return rowsWritten;
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    /**
+     * Recompute the UTC hour buckets covering the local days [fromDay, toDay] from item_usage.
+     * Chunks are aligned on UTC hours so every bucket is recomputed whole within one transaction;
+     * re-running is harmless.
+     * @return number of bucket rows written, or -1 if a backfill is already running
+     */
+    public long backfillHourly(LocalDate fromDay, LocalDate toDay) {
+        ZoneId sourceZone = getSourceZone();
+        return backfillHourly(fromDayStart(fromDay, sourceZone),
+            fromDayStart(toDay.plusDays(1), sourceZone).plus(1, ChronoUnit.HOURS));
+    }
+
+    /**
+     * Recompute the UTC hour buckets in [from, end); both must be whole UTC hours.
+     * Each chunk reads its usage FOR SHARE and overwrites its buckets in one transaction, so a usage recorded
+     * concurrently is either in the recomputed totals or added after them, never lost; the chunk also records
+     * the progress in usage_rollup_backfill. Buckets are computed in Java because the UTC hour depends on
+     * the source zone's offset at each minute.
+     */
+    private long backfillHourly(Instant from, Instant end) {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            logger.warn("Usage rollup backfill already running, skipping hourly request for {} - {}", from, end);
+            return -1;
+        }
+        try {
+            ZoneId sourceZone = getSourceZone();
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            long startedAt = System.currentTimeMillis();
+            long rowsWritten = 0;
+            Instant chunkStart = from;
+            while (chunkStart.isBefore(end)) {
+                Instant chunkEnd = chunkStart.plus(BACKFILL_CHUNK_DAYS, ChronoUnit.DAYS);
+                if (chunkEnd.isAfter(end)) {
+                    chunkEnd = end;
+                }
+                LocalDateTime start = LocalDateTime.ofInstant(chunkStart, sourceZone);
+                LocalDateTime stop = LocalDateTime.ofInstant(chunkEnd, sourceZone);
+                Instant stopInstant = chunkEnd;
+                Integer written = transactionTemplate.execute(status -> {
+                    // (UTC hour, item) -> {qty, events}; the read locks the chunk's usage rows until commit
+                    Map<HourlyKey, long[]> buckets = new HashMap<>();
+                    for (Object[] row : usageRepository.sumUsageByMinute(start, stop)) {
+                        LocalDateTime minute = LocalDateTime.parse(((String) row[0]).replace(' ', 'T'));
+                        long[] bucket = buckets.computeIfAbsent(
+                            new HourlyKey(toUtcHour(minute), ((Number) row[1]).longValue()), key -> new long[2]);
+                        bucket[0] += ((Number) row[2]).longValue();
+                        bucket[1] += ((Number) row[3]).longValue();
+                    }
+                    buckets.forEach((key, bucket) ->
+                        hourlyRollupRepository.replaceUsage(key.hourUtc(), key.itemId(), bucket[0], (int) bucket[1]));
+                    saveBackfillProgress(HOURLY, LocalDateTime.ofInstant(stopInstant, ZoneOffset.UTC));
+                    return buckets.size();
+                });
+                rowsWritten += written != null ? written : 0;
+                chunkStart = chunkEnd;
+            }
+            logger.info("Hourly usage rollup backfill {} - {} finished: {} rows in {} ms",
+                from, end, rowsWritten, System.currentTimeMillis() - startedAt);
+            return rowsWritten;
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    private record HourlyKey(LocalDateTime hourUtc, long itemId) {
+    }
+
+    private record BackfillState(LocalDateTime backfilledUntil, LocalDateTime completedAt) {
+    }
+
+    private BackfillState findBackfillState(String rollup) {
+        List<BackfillState> states = jdbcTemplate.query(
+            "SELECT backfilled_until, completed_at FROM usage_rollup_backfill WHERE rollup = ?",
+            (rs, rowNum) -> new BackfillState(rs.getTimestamp(1).toLocalDateTime(),
+                rs.getTimestamp(2) != null ? rs.getTimestamp(2).toLocalDateTime() : null),
+            rollup);
+        return states.isEmpty() ? null : states.get(0);
+    }
+
+    /**
+     * Record that the rollup is filled up to (excluding) until; joins the chunk's transaction
+     */
+    private void saveBackfillProgress(String rollup, LocalDateTime until) {
+        jdbcTemplate.update(
+            "INSERT INTO usage_rollup_backfill (rollup, backfilled_until) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE backfilled_until = VALUES(backfilled_until)",
+            rollup, Timestamp.valueOf(until));
+    }
+
+    private void completeBackfill(String rollup) {
+        jdbcTemplate.update("UPDATE usage_rollup_backfill SET completed_at = ? WHERE rollup = ?",
+            Timestamp.valueOf(LocalDateTime.now()), rollup);
+    }
+
+    /**
+     * Start of the UTC hour containing local midnight of the given day
+     */
+    private static Instant fromDayStart(LocalDate day, ZoneId zone) {
+        return day.atStartOfDay(zone).toInstant().truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Public items (null / empty department) share the '' bucket
+     */
+    static String toRollupDepartment(String department) {
+        return department != null ? department.trim() : "";
+    }
+}
@@ -1,23 +1,42 @@
 package com.inventory.service;
 
 import com.inventory.entity.Usage;
+import com.inventory.event.UsageRecordedEvent;
 import com.inventory.entity.Item;
 import com.inventory.repository.UsageRepository;
+import com.inventory.repository.UsageSpecifications;
 import com.inventory.repository.ItemRepository;
 import com.inventory.dto.UsageRequest;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class UsageService {
 
+    // Usage history is always listed newest first; id breaks ties between identical timestamps
+    private static final Sort USAGE_HISTORY_SORT = Sort.by(Sort.Direction.DESC, "usedAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    // MySQL ngram_token_size (default 2); shorter terms cannot be answered by the FULLTEXT index
+    static final int NGRAM_TOKEN_SIZE = 2;
+
     @Autowired
     private UsageRepository usageRepository;
 
@@ -27,6 +46,25 @@ public class UsageService {
     @Autowired
     private AlertService alertService;
 
+    @Autowired
+    private ExcelExportService excelExportService;
+
+    @Autowired
+    private UsageRollupService usageRollupService;
+
+    @Autowired
+    private StockoutForecastService stockoutForecastService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Upper bound for reading an export; the download itself runs after the transaction has ended
+    @Value("${app.exports.query-timeout-seconds:300}")
+    private int exportQueryTimeoutSeconds;
+
     @Transactional
     public Usage recordUsage(UsageRequest request) {
         // Validate request
@@ -69,6 +107,7 @@ public class UsageService {
         int oldInventory = item.getCurrentInventory();
         item.setCurrentInventory(item.getCurrentInventory() - request.getQuantityUsed());
         item.setUsedInventory(item.getUsedInventory() + request.getQuantityUsed());
+        stockoutForecastService.recordUsage(item, request.getQuantityUsed(), LocalDateTime.now());
         Item savedItem = itemRepository.save(item);
 
         System.out.println("=== USAGE DEBUG ===");
@@ -93,6 +132,9 @@ public class UsageService {
         );
 
         Usage savedUsage = usageRepository.save(usage);
+        usageRollupService.recordUsage(savedUsage);
+        eventPublisher.publishEvent(new UsageRecordedEvent(savedUsage.getId(), savedItem.getId(),
+            savedItem.getDepartment(), savedUsage.getQuantityUsed(), savedUsage.getUsedAt()));
 
         // Check for alerts after usage (use saved item to ensure latest state)
         alertService.checkAndCreateSafetyStockAlert(savedItem);
@@ -108,6 +150,32 @@ public class UsageService {
         return usageRepository.findAllByOrderByUsedAtDesc(pageable);
     }
 
+    public Page<Usage> getUsagePaginatedByDepartment(String department, Pageable pageable) {
+        if (department == null || department.trim().isEmpty()) {
+            return usageRepository.findAllByOrderByUsedAtDesc(pageable);
+        }
+        return usageRepository.findByItemDepartmentOrderByUsedAtDesc(department, pageable);
+    }
+
+    /**
+     * Keyset pagination over usage history ordered by (usedAt, id) descending.
+     * A null cursor returns the first page; otherwise rows strictly after the cursor are returned.
+     * Department filtering (by item's department) is applied in SQL; null means all departments.
+     */
+    public List<Usage> getUsageKeysetPage(String department, LocalDateTime cursorUsedAt, Long cursorId, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        boolean firstPage = cursorUsedAt == null || cursorId == null;
+        
+        if (department == null || department.trim().isEmpty()) {
+            return firstPage
+                    ? usageRepository.findFirstKeysetPage(pageable)
+                    : usageRepository.findKeysetPageAfter(cursorUsedAt, cursorId, pageable);
+        }
+        return firstPage
+                ? usageRepository.findFirstKeysetPageByDepartment(department, pageable)
+                : usageRepository.findKeysetPageAfterByDepartment(department, cursorUsedAt, cursorId, pageable);
+    }
+
     public List<Usage> getUsageByItem(Long itemId) {
         Optional<Item> item = itemRepository.findById(itemId);
         if (item.isPresent()) {
@@ -143,6 +211,91 @@ public class UsageService {
 
     public List<Usage> getUsageWithFilters(LocalDateTime startDate, LocalDateTime endDate, 
                                           String userName, String department, String barcodeOrItemCode) {
-        return usageRepository.findUsageWithFilters(startDate, endDate, userName, department, barcodeOrItemCode);
+        Specification<Usage> spec = buildUsageFilterSpecification(startDate, endDate, userName, department, barcodeOrItemCode);
+        return usageRepository.findAll(spec, USAGE_HISTORY_SORT);
+    }
+
+    /**
+     * Build a usage query containing only the predicates for the filters that were supplied.
+     * Substring searches on user and item names are resolved through the n-gram FULLTEXT
+     * indexes first, so the main query only uses equality / IN predicates on indexed columns.
+     * The indexes are built without a stopword list (V34): with one, n-grams containing a stopword
+     * are not indexed and terms such as "ia" or "at" would match nothing.
+     */
+    public Specification<Usage> buildUsageFilterSpecification(LocalDateTime startDate, LocalDateTime endDate,
+                                                              String userName, String department, String barcodeOrItemCode) {
+        Specification<Usage> spec = Specification.where(UsageSpecifications.fetchItem());
+        
+        if (startDate != null) {
+            spec = spec.and(UsageSpecifications.usedAtFrom(startDate));
+        }
+        if (endDate != null) {
+            spec = spec.and(UsageSpecifications.usedAtTo(endDate));
+        }
+        if (hasText(department)) {
+            spec = spec.and(UsageSpecifications.itemDepartment(department.trim()));
+        }
+        
+        if (hasText(userName)) {
+            String term = userName.trim();
+            if (term.length() < NGRAM_TOKEN_SIZE) {
+                spec = spec.and(UsageSpecifications.userNameContains(term));
+            } else {
+                List<String> userNames = usageRepository.findUserNamesMatching(toFullTextPhrase(term));
+                spec = spec.and(userNames.isEmpty()
+                        ? UsageSpecifications.none()
+                        : UsageSpecifications.userNameIn(userNames));
+            }
+        }
+        
+        if (hasText(barcodeOrItemCode)) {
+            String term = barcodeOrItemCode.trim();
+            List<Long> itemIds = term.length() < NGRAM_TOKEN_SIZE
+                    ? itemRepository.findIdsByCodeOrNameContaining(term.toUpperCase(), term)
+                    : itemRepository.findIdsByCodeOrNameMatching(term.toUpperCase(), toFullTextPhrase(term));
+            spec = spec.and(UsageSpecifications.barcodeOrItemIn(term, itemIds));
+        }
+        
+        return spec;
+    }
+
+    /**
+     * Stream matching usage records from a database cursor into an Excel report.
+     * The rows are read inside a read-only transaction bounded by app.exports.query-timeout-seconds
+     * (applied to the cursor query as its JDBC timeout); the workbook is spooled to compressed temp
+     * files and only written to the client after the transaction has ended, so a slow download
+     * does not keep a pooled connection checked out.
+     */
+    public long writeUsageExcelReport(Specification<Usage> spec, OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = excelExportService.createUsageWorkbook();
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.setTimeout(exportQueryTimeoutSeconds);
+            Long rows = readOnly.execute(status -> {
+                try (Stream<Usage> usageRecords = usageRepository.streamAll(spec)) {
+                    return excelExportService.fillUsageWorkbook(workbook, usageRecords);
+                }
+            });
+
+            workbook.write(outputStream);
+            outputStream.flush();
+            return rows != null ? rows : 0;
+        } finally {
+            // Remove the temporary files backing the flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Quote a search term as a boolean-mode phrase so the n-gram parser matches it as a substring
+     */
+    static String toFullTextPhrase(String term) {
+        return "\"" + term.replace("\"", " ") + "\"";
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
     }
-} 
\ No newline at end of file
+}
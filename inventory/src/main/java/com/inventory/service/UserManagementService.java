@@ -25,7 +25,7 @@ public class UserManagementService {
     private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private AlertService alertService;
+    private AlertReevaluationService alertReevaluationService;
 
     public List<UserResponse> getAllUsers() {
         return userRepository.findAll().stream()
@@ -88,7 +88,7 @@ public class UserManagementService {
             System.out.println("User thresholds changed for " + savedUser.getUsername() + 
                 " - Warning: " + oldWarningThreshold + "% -> " + savedUser.getWarningThreshold() + "%, " +
                 "Critical: " + oldCriticalThreshold + "% -> " + savedUser.getCriticalThreshold() + "%");
-            alertService.reevaluateAlertsForUserThresholds(savedUser);
+            alertReevaluationService.submit(savedUser, oldWarningThreshold, oldCriticalThreshold);
         }
         
         return convertToResponse(savedUser);
@@ -1,18 +1,25 @@
 package com.inventory.service.impl;
 
 import com.inventory.entity.Alert;
+import com.inventory.dto.AlertNotification;
 import com.inventory.dto.ContactFormRequest;
+import com.inventory.entity.EmailOutboxMessage;
+import com.inventory.repository.EmailOutboxRepository;
 import com.inventory.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 @Service
 public class EmailServiceImpl implements EmailService {
@@ -22,111 +29,118 @@ public class EmailServiceImpl implements EmailService {
     @Autowired
     private JavaMailSender mailSender;
     
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+    
     @Value("${spring.mail.username}")
     private String fromEmail;
     
+    // How long a recipient's alert emails are held so that alerts close together go out as one digest
+    @Value("${app.alerts.email.digest-window-ms:120000}")
+    private long digestWindowMs;
+    
     private static final String COMPANY_NAME = "Smart Inventory Pro";
     private static final String SUPPORT_EMAIL = "miaotingshuo@gmail.com";
     
     @Override
+    @Transactional
     public void sendAlertNotification(Alert alert, String recipientEmail) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail, COMPANY_NAME);
-            helper.setTo(recipientEmail);
-            
-            // Determine urgency and subject
-            boolean isUrgent = isAlertUrgent(alert);
-            String urgencyPrefix = isUrgent ? "🚨 URGENT" : "⚠️";
-            String subject = String.format("%s Inventory Alert: %s - %s", 
-                urgencyPrefix, alert.getItem().getName(), COMPANY_NAME);
-            
-            helper.setSubject(subject);
-            helper.setText(buildAlertEmailTemplate(alert), true);
-            
-            mailSender.send(message);
-            logger.info("Alert notification email sent successfully to: {}", recipientEmail);
-            
-        } catch (Exception e) {
-            logger.error("Failed to send alert notification email to: {}", recipientEmail, e);
-        }
+        // Rendered when sent, together with the recipient's other alerts queued within the window
+        outboxRepository.save(EmailOutboxMessage.alert(normalizeRecipient(recipientEmail), alert.getId(),
+            LocalDateTime.now().plus(digestWindowMs, ChronoUnit.MILLIS)));
+        logger.info("Alert notification email queued for: {}", recipientEmail);
     }
     
     @Override
+    @Transactional
     public void sendContactFormNotification(ContactFormRequest contactForm, String recipientEmail) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail, COMPANY_NAME);
-            helper.setTo(recipientEmail);
-            helper.setReplyTo(contactForm.getEmail());
-            helper.setSubject("New Contact Form Submission - " + COMPANY_NAME);
-            helper.setText(buildContactFormEmailTemplate(contactForm), true);
-            
-            mailSender.send(message);
-            logger.info("Contact form notification email sent successfully to: {}", recipientEmail);
-            
-        } catch (Exception e) {
-            logger.error("Failed to send contact form notification email to: {}", recipientEmail, e);
-        }
+        outboxRepository.save(EmailOutboxMessage.message(recipientEmail,
+            "New Contact Form Submission - " + COMPANY_NAME,
+            buildContactFormEmailTemplate(contactForm),
+            contactForm.getEmail()));
+        logger.info("Contact form notification email queued for: {}", recipientEmail);
     }
     
     @Override
+    @Transactional
     public void sendWelcomeEmail(String userEmail, String userName, String temporaryPassword) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail, COMPANY_NAME);
-            helper.setTo(userEmail);
-            helper.setSubject("Welcome to " + COMPANY_NAME);
-            helper.setText(buildWelcomeEmailTemplate(userName, temporaryPassword), true);
-            
-            mailSender.send(message);
-            logger.info("Welcome email sent successfully to: {}", userEmail);
-            
-        } catch (Exception e) {
-            logger.error("Failed to send welcome email to: {}", userEmail, e);
-        }
+        outboxRepository.save(EmailOutboxMessage.message(userEmail,
+            "Welcome to " + COMPANY_NAME,
+            buildWelcomeEmailTemplate(userName, temporaryPassword),
+            null));
+        logger.info("Welcome email queued for: {}", userEmail);
     }
     
     @Override
+    @Transactional
     public void sendLowStockSummary(String recipientEmail, long alertCount) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail, COMPANY_NAME);
-            helper.setTo(recipientEmail);
-            helper.setSubject("Daily Inventory Alert Summary - " + COMPANY_NAME);
-            helper.setText(buildSummaryEmailTemplate(alertCount), true);
-            
-            mailSender.send(message);
-            logger.info("Daily summary email sent successfully to: {}", recipientEmail);
-            
-        } catch (Exception e) {
-            logger.error("Failed to send daily summary email to: {}", recipientEmail, e);
+        outboxRepository.save(EmailOutboxMessage.message(recipientEmail,
+            "Daily Inventory Alert Summary - " + COMPANY_NAME,
+            buildSummaryEmailTemplate(alertCount),
+            null));
+        logger.info("Daily summary email queued for: {}", recipientEmail);
+    }
+    
+    @Override
+    public MimeMessage createAlertMessage(String recipientEmail, List<AlertNotification> alerts) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        
+        helper.setFrom(fromEmail, COMPANY_NAME);
+        helper.setTo(recipientEmail);
+        
+        // Determine urgency and subject
+        boolean isUrgent = alerts.stream().anyMatch(this::isAlertUrgent);
+        String urgencyPrefix = isUrgent ? "🚨 URGENT" : "⚠️";
+        if (alerts.size() == 1) {
+            helper.setSubject(String.format("%s Inventory Alert: %s - %s",
+                urgencyPrefix, alerts.get(0).getItemName(), COMPANY_NAME));
+            helper.setText(buildAlertEmailTemplate(alerts.get(0)), true);
+        } else {
+            helper.setSubject(String.format("%s Inventory Alerts: %d items - %s",
+                urgencyPrefix, alerts.size(), COMPANY_NAME));
+            helper.setText(buildAlertDigestTemplate(alerts), true);
         }
+        return message;
     }
     
-    private boolean isAlertUrgent(Alert alert) {
+    @Override
+    public MimeMessage createMessage(String recipientEmail, String subject, String html, String replyTo) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        
+        helper.setFrom(fromEmail, COMPANY_NAME);
+        helper.setTo(recipientEmail);
+        if (replyTo != null) {
+            helper.setReplyTo(replyTo);
+        }
+        helper.setSubject(subject);
+        helper.setText(html, true);
+        return message;
+    }
+    
+    /**
+     * Alert rows are grouped by recipient, so the same address must always be spelled the same way
+     */
+    private static String normalizeRecipient(String email) {
+        return email.trim().toLowerCase();
+    }
+    
+    private boolean isAlertUrgent(AlertNotification alert) {
         // Consider alert urgent if current inventory is less than or equal to 50% of safety stock threshold
         int criticalLevel = (int) (alert.getSafetyStockThreshold() * 0.5);
         return alert.getCurrentInventory() <= criticalLevel;
     }
     
-    private String buildAlertEmailTemplate(Alert alert) {
+    private String buildAlertEmailTemplate(AlertNotification alert) {
         // Use the alert's alertType field directly instead of recalculating
-        boolean isUrgent = "CRITICAL_STOCK".equals(alert.getAlertType());
+        boolean isUrgent = alert.isCritical();
         String urgencyColor = isUrgent ? "#ff4444" : "#ff9800";
         String urgencyLabel = isUrgent ? "CRITICAL" : "WARNING";
         int current = alert.getCurrentInventory();
         int safety = alert.getSafetyStockThreshold();
-        String itemCode = alert.getItem().getCode();
-        String itemName = alert.getItem().getName();
+        String itemCode = alert.getItemCode();
+        String itemName = alert.getItemName();
         String message = String.format(
             "Item %s (%s) has only %d units left. %d units is lower than Safety Stock (%d units).",
             itemName, itemCode, current, current, safety
@@ -189,8 +203,68 @@ public class EmailServiceImpl implements EmailService {
             alert.getCreatedAt().format(DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' HH:mm")),
             itemName,
             itemCode,
-            alert.getItem().getLocation() != null ? alert.getItem().getLocation() : "Not specified",
-            alert.getItem().getBarcode() != null ? alert.getItem().getBarcode() : "Not specified",
+            alert.getLocation() != null ? alert.getLocation() : "Not specified",
+            alert.getBarcode() != null ? alert.getBarcode() : "Not specified",
+            COMPANY_NAME, SUPPORT_EMAIL, SUPPORT_EMAIL
+        );
+    }
+    
+    private String buildAlertDigestTemplate(List<AlertNotification> alerts) {
+        long criticalCount = alerts.stream().filter(AlertNotification::isCritical).count();
+        StringBuilder rows = new StringBuilder();
+        for (AlertNotification alert : alerts) {
+            rows.append(String.format("""
+                        <tr>
+                            <td style="padding: 10px 12px; border-bottom: 1px solid #ddd; color: %s; font-weight: bold;">%s</td>
+                            <td style="padding: 10px 12px; border-bottom: 1px solid #ddd;">%s (%s)</td>
+                            <td style="padding: 10px 12px; border-bottom: 1px solid #ddd;">%s</td>
+                            <td style="padding: 10px 12px; border-bottom: 1px solid #ddd; text-align: right;">%d / %d</td>
+                        </tr>
+                """,
+                alert.isCritical() ? "#ff4444" : "#ff9800",
+                alert.isCritical() ? "CRITICAL" : "WARNING",
+                alert.getItemName(), alert.getItemCode(),
+                alert.getLocation() != null ? alert.getLocation() : "Not specified",
+                alert.getCurrentInventory(), alert.getSafetyStockThreshold()
+            ));
+        }
+        return String.format("""
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="UTF-8">
+                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                <title>Inventory Alerts</title>
+            </head>
+            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; max-width: 600px; margin: 0 auto; padding: 20px;">
+                <div style="background-color: %s; color: white; padding: 15px; border-radius: 8px; text-align: center; margin-bottom: 25px;">
+                    <h2 style="margin: 0; font-size: 22px;">%d INVENTORY ALERTS</h2>
+                    <p style="margin: 5px 0 0 0; font-size: 16px;">%d critical, %d warning</p>
+                </div>
+                <div style="background-color: #fff; border: 1px solid #ddd; border-radius: 8px; overflow: hidden; margin-bottom: 25px;">
+                    <h3 style="background-color: #667eea; color: white; margin: 0; padding: 15px; font-size: 18px;">🏷️ Items Below Safety Stock</h3>
+                    <table style="width: 100%%; border-collapse: collapse;">
+                        <tr style="background-color: #f8f9fa;">
+                            <td style="padding: 10px 12px; border-bottom: 1px solid #ddd; font-weight: bold;">Level</td>
+                            <td style="padding: 10px 12px; border-bottom: 1px solid #ddd; font-weight: bold;">Item</td>
+                            <td style="padding: 10px 12px; border-bottom: 1px solid #ddd; font-weight: bold;">Location</td>
+                            <td style="padding: 10px 12px; border-bottom: 1px solid #ddd; font-weight: bold; text-align: right;">Current / Safety</td>
+                        </tr>
+            %s
+                    </table>
+                </div>
+                <div style="text-align: center; padding: 25px; background-color: #f8f9fa; border-radius: 8px;">
+                    <p style="margin: 0; color: #666; font-size: 14px;">
+                        These alerts were generated automatically by %s<br>
+                        For support, contact: <a href="mailto:%s" style="color: #667eea;">%s</a>
+                    </p>
+                </div>
+            </body>
+            </html>
+            """,
+            criticalCount > 0 ? "#ff4444" : "#ff9800",
+            alerts.size(), criticalCount, alerts.size() - criticalCount,
+            rows,
             COMPANY_NAME, SUPPORT_EMAIL, SUPPORT_EMAIL
         );
     }
@@ -0,0 +1,73 @@
+package com.inventory.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch over long keys with weighted increments.
+ *
+ * At most {@code capacity} keys are tracked. When a new key arrives and the sketch is full, the key with the
+ * smallest count is replaced and the newcomer inherits that count as its error. Any key whose true total
+ * exceeds (total weight / capacity) is guaranteed to be tracked, and every reported count overestimates
+ * the true one by at most its error.
+ *
+ * Not thread-safe; callers synchronize on the sketch.
+ */
+public class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<Long, long[]> counters; // key -> {count, error}
+
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void add(long key, long weight) {
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{weight, 0});
+            return;
+        }
+
+        // Replace the smallest counter; O(capacity) but only on misses of a full sketch
+        Long minKey = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < minCount) {
+                minCount = entry.getValue()[0];
+                minKey = entry.getKey();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[]{minCount + weight, minCount});
+    }
+
+    /**
+     * Replace the contents with exact totals, keeping the largest {@code capacity} of them
+     */
+    public void loadExact(Map<Long, Long> totals) {
+        counters.clear();
+        totals.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+            .limit(capacity)
+            .forEach(entry -> counters.put(entry.getKey(), new long[]{entry.getValue(), 0}));
+    }
+
+    /**
+     * Add this sketch's (estimated) counts into the given map
+     */
+    public void mergeInto(Map<Long, Long> totals) {
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            totals.merge(entry.getKey(), entry.getValue()[0], Long::sum);
+        }
+    }
+
+    public int size() {
+        return counters.size();
+    }
+}
@@ -0,0 +1,13 @@
+-- Indexes supporting department-aware alert listings and counts
+-- V22: Alert state filters are combined with the item department predicate in SQL
+
+-- Active / unread listings and counts (resolved = false AND ignored = false [AND read = false])
+CREATE INDEX idx_alerts_state_created ON alerts(resolved, ignored, created_at);
+CREATE INDEX idx_alerts_unread_state ON alerts(resolved, `read`, ignored);
+
+-- Ignored and resolved listings ordered by their transition timestamps
+CREATE INDEX idx_alerts_ignored_at ON alerts(ignored, ignored_at);
+CREATE INDEX idx_alerts_resolved_at ON alerts(resolved, resolved_at);
+
+-- Join from alerts to items filtered by department (items.department is already indexed in V21)
+CREATE INDEX idx_items_department_id ON items(department, id);
@@ -0,0 +1,9 @@
+-- Indexes supporting keyset pagination of usage history on (used_at, id)
+-- V23: Department filtering joins item_usage to items.department
+
+-- Unfiltered history (OWNER): walk used_at/id in index order
+CREATE INDEX idx_item_usage_used_at_id ON item_usage(used_at, id);
+
+-- Department-filtered history: items(department, id) drives the join (V22),
+-- each item's usage is then read in used_at order from this index
+CREATE INDEX idx_item_usage_item_used_at ON item_usage(item_id, used_at);
@@ -0,0 +1,10 @@
+-- Indexed search for usage history filters
+-- V24: n-gram FULLTEXT indexes replace leading-wildcard LIKE scans on user and item names
+
+-- Substring search on user names / item names (ngram_token_size defaults to 2)
+ALTER TABLE item_usage ADD FULLTEXT INDEX ft_item_usage_user_name (user_name) WITH PARSER ngram;
+ALTER TABLE items ADD FULLTEXT INDEX ft_items_name (name) WITH PARSER ngram;
+
+-- Equality lookups once matching user names / item ids have been resolved
+CREATE INDEX idx_item_usage_user_name ON item_usage(user_name, used_at);
+CREATE INDEX idx_item_usage_barcode ON item_usage(barcode);
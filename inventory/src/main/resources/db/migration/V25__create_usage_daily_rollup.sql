@@ -0,0 +1,16 @@
+-- Daily usage rollup maintained in the same transaction as each item_usage insert
+-- Stats endpoints read this table so their cost grows with days, not usage events
+-- department is the item's department ('' for public items) so department filters need no join
+
+CREATE TABLE usage_daily_rollup (
+    day DATE NOT NULL,
+    item_id BIGINT NOT NULL,
+    department VARCHAR(100) NOT NULL DEFAULT '',
+    qty BIGINT NOT NULL DEFAULT 0,
+    events INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, item_id, department),
+    FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_usage_daily_rollup_dept_day ON usage_daily_rollup(department, day);
+CREATE INDEX idx_usage_daily_rollup_item ON usage_daily_rollup(item_id);
@@ -0,0 +1,21 @@
+-- Materialized alert counts per item department ('' for public items)
+-- Maintained by AlertCounterService in the same transaction as each alert change and rebuilt periodically
+-- active = not resolved and not ignored, unread = active and not read (same predicates as the alert listings)
+
+CREATE TABLE alert_counters (
+    department VARCHAR(100) NOT NULL,
+    active_count BIGINT NOT NULL DEFAULT 0,
+    unread_count BIGINT NOT NULL DEFAULT 0,
+    ignored_count BIGINT NOT NULL DEFAULT 0,
+    resolved_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (department)
+);
+
+INSERT INTO alert_counters (department, active_count, unread_count, ignored_count, resolved_count)
+SELECT COALESCE(i.department, ''),
+       SUM(CASE WHEN a.resolved = FALSE AND a.ignored = FALSE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN a.resolved = FALSE AND a.ignored = FALSE AND a.`read` = FALSE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN a.ignored = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN a.resolved = TRUE THEN 1 ELSE 0 END)
+FROM alerts a JOIN items i ON a.item_id = i.id
+GROUP BY COALESCE(i.department, '');
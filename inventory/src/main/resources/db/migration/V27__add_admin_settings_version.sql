@@ -0,0 +1,10 @@
+-- Row version for optimistic locking; COUNT(*) + SUM(version) changes on every settings write,
+-- which lets each application node detect updates made through another node
+ALTER TABLE admin_settings ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Seed the alert thresholds so reads never have to insert defaults
+INSERT IGNORE INTO admin_settings (setting_key, setting_value, description)
+VALUES ('warning_threshold', '100', 'Warning threshold percentage for stock alerts');
+
+INSERT IGNORE INTO admin_settings (setting_key, setting_value, description)
+VALUES ('critical_threshold', '50', 'Critical threshold percentage for stock alerts');
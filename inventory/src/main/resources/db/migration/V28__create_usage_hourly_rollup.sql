@@ -0,0 +1,13 @@
+-- Hourly usage rollup keyed by the UTC hour, maintained in the same transaction as each item_usage insert
+-- Days are folded from these buckets for whatever time zone a caller asks for, without touching item_usage
+
+CREATE TABLE usage_hourly_rollup (
+    hour_utc DATETIME NOT NULL,
+    item_id BIGINT NOT NULL,
+    qty BIGINT NOT NULL DEFAULT 0,
+    events INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (hour_utc, item_id),
+    FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_usage_hourly_rollup_item ON usage_hourly_rollup(item_id);
@@ -0,0 +1,15 @@
+-- One open alert per item is now updated in place; its severity changes are recorded here instead of
+-- as new alert rows. from_type is NULL when the alert was opened, to_type is 'RESOLVED' when it closed.
+
+CREATE TABLE alert_severity_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    alert_id BIGINT NOT NULL,
+    item_id BIGINT NOT NULL,
+    from_type VARCHAR(30),
+    to_type VARCHAR(30) NOT NULL,
+    current_inventory INT NOT NULL,
+    changed_at DATETIME NOT NULL,
+    FOREIGN KEY (alert_id) REFERENCES alerts(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_alert_severity_history_alert ON alert_severity_history(alert_id, changed_at);
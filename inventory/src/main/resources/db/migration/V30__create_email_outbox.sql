@@ -0,0 +1,23 @@
+-- Outbound email is written here in the transaction that triggers it and sent by background workers.
+-- MESSAGE rows carry a rendered email. ALERT rows only reference the alert; pending ALERT rows for the
+-- same recipient are combined into one digest when the first of them becomes due.
+
+CREATE TABLE email_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    kind VARCHAR(10) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(500),
+    body MEDIUMTEXT,
+    reply_to VARCHAR(255),
+    alert_id BIGINT,
+    status VARCHAR(10) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME NOT NULL,
+    locked_until DATETIME,
+    last_error VARCHAR(1000),
+    created_at DATETIME NOT NULL,
+    sent_at DATETIME
+);
+
+CREATE INDEX idx_email_outbox_due ON email_outbox(status, next_attempt_at);
+CREATE INDEX idx_email_outbox_recipient ON email_outbox(recipient, status);
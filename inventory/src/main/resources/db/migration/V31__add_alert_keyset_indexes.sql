@@ -0,0 +1,13 @@
+-- Indexes supporting keyset pagination of alert listings
+-- V31: All / active / unread walk (created_at, id), ignored walks (ignored_at, id), resolved walks (resolved_at, id)
+
+-- Rows with a NULL transition timestamp would never match a cursor; give legacy rows their creation time
+UPDATE alerts SET ignored_at = created_at WHERE ignored = TRUE AND ignored_at IS NULL;
+UPDATE alerts SET resolved_at = created_at WHERE resolved = TRUE AND resolved_at IS NULL;
+
+CREATE INDEX idx_alerts_created_at_id ON alerts(created_at, id);
+CREATE INDEX idx_alerts_ignored_at_id ON alerts(ignored_at, id);
+CREATE INDEX idx_alerts_resolved_at_id ON alerts(resolved_at, id);
+
+-- Covered by idx_alerts_created_at_id
+DROP INDEX idx_alerts_created_at ON alerts;
@@ -0,0 +1,29 @@
+-- Cold storage for alerts resolved longer than the retention period (AlertArchiveService).
+-- Rows keep their original alert id and carry a snapshot of the item, so they survive item deletion and
+-- can be exported without joining items. Compressed pages: the table is append-only and rarely read.
+
+CREATE TABLE alerts_archive (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    item_name VARCHAR(255),
+    item_code VARCHAR(50),
+    item_department VARCHAR(100),
+    alert_type VARCHAR(50) NOT NULL,
+    message TEXT NOT NULL,
+    current_inventory INT NOT NULL,
+    pendingpo INT NOT NULL,
+    used_inventory INT NOT NULL,
+    safety_stock_threshold INT NOT NULL,
+    resolved BOOLEAN NOT NULL,
+    `read` BOOLEAN NOT NULL,
+    ignored BOOLEAN NOT NULL,
+    created_at TIMESTAMP NULL,
+    resolved_at TIMESTAMP NULL,
+    read_at TIMESTAMP NULL,
+    ignored_at TIMESTAMP NULL,
+    archived_at DATETIME NOT NULL
+) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+-- Export filters: creation time range, item department
+CREATE INDEX idx_alerts_archive_created_at_id ON alerts_archive(created_at, id);
+CREATE INDEX idx_alerts_archive_department ON alerts_archive(item_department);
@@ -0,0 +1,6 @@
+-- Stock-out forecasting: per-item exponentially weighted usage rate and purchase order lead time.
+-- Both are updated in place on each usage / PO arrival, so forecasting never scans usage history.
+
+ALTER TABLE items ADD COLUMN usage_rate_per_day DOUBLE NULL;
+ALTER TABLE items ADD COLUMN usage_rate_updated_at DATETIME NULL;
+ALTER TABLE items ADD COLUMN lead_time_days DOUBLE NULL;
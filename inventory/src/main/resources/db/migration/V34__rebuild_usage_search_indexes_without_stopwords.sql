@@ -0,0 +1,13 @@
+-- Rebuild the V24 n-gram FULLTEXT indexes without a stopword list
+-- V34: with the default InnoDB stopword list the ngram parser drops every token that contains a
+-- stopword ("a", "i", "at", ...), so substring searches that LIKE found silently matched nothing.
+-- innodb_ft_enable_stopword is read when an index is created and kept with it; turning it off for
+-- this session only affects the indexes built here, not the server default.
+
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+ALTER TABLE item_usage DROP INDEX ft_item_usage_user_name;
+ALTER TABLE item_usage ADD FULLTEXT INDEX ft_item_usage_user_name (user_name) WITH PARSER ngram;
+
+ALTER TABLE items DROP INDEX ft_items_name;
+ALTER TABLE items ADD FULLTEXT INDEX ft_items_name (name) WITH PARSER ngram;
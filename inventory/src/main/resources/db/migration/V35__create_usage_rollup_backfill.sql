@@ -0,0 +1,10 @@
+-- Progress of the startup backfill of each usage rollup (UsageRollupService), so a backfill that was
+-- interrupted resumes where it stopped instead of the partly filled table being taken for complete.
+-- backfilled_until is the exclusive end of the range done so far: a local day start for 'daily',
+-- a UTC hour for 'hourly'. completed_at is set once the whole history has been covered.
+
+CREATE TABLE usage_rollup_backfill (
+    rollup VARCHAR(20) PRIMARY KEY,
+    backfilled_until DATETIME NOT NULL,
+    completed_at DATETIME NULL
+);
@@ -0,0 +1,4 @@
+-- Settled outbox rows no longer keep their rendered body (it may contain a temporary password);
+-- clear the bodies of rows sent or given up on before the sender started doing so.
+
+UPDATE email_outbox SET body = NULL WHERE status IN ('SENT', 'FAILED');
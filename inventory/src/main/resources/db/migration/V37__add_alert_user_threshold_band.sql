@@ -0,0 +1,4 @@
+-- Set when a user's threshold re-evaluation last moved the alert's band (AlertReevaluationService);
+-- the default-threshold sweep leaves such alerts alone until the item's stock changes.
+
+ALTER TABLE alerts ADD COLUMN user_threshold_band BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,15 @@
+-- Severity history of archived alerts (AlertArchiveService). alert_severity_history rows are deleted with
+-- their alert (ON DELETE CASCADE), so they are copied here first, keeping their ids. No foreign keys:
+-- alerts_archive rows outlive their items. Compressed like alerts_archive.
+
+CREATE TABLE alert_severity_history_archive (
+    id BIGINT PRIMARY KEY,
+    alert_id BIGINT NOT NULL,
+    item_id BIGINT NOT NULL,
+    from_type VARCHAR(30),
+    to_type VARCHAR(30) NOT NULL,
+    current_inventory INT NOT NULL,
+    changed_at DATETIME NOT NULL
+) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+CREATE INDEX idx_alert_severity_history_archive_alert ON alert_severity_history_archive(alert_id, changed_at);